@@ -12,7 +12,8 @@ public class App extends Application {
     public void start(Stage stage) {
         // Initialize MVC Components
         MainView view = new MainView();
-        new MainController(view); 
+        MainController controller = new MainController(view);
+        stage.setOnHidden(e -> controller.shutdown());
         
     
         var iconStream = getClass().getResourceAsStream("/images/app_icon.png");
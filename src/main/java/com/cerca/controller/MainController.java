@@ -6,24 +6,44 @@ import java.io.IOException;
 import java.net.URI;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
+import com.cerca.model.MatchResult;
 import com.cerca.model.ReferenceItem;
+import com.cerca.model.ResultsSummary;
 import com.cerca.service.CermineService;
 import com.cerca.service.ConfigService;
 import com.cerca.service.CrossrefService;
 import com.cerca.service.CsvService;
+import com.cerca.service.DoiResolverService;
+import com.cerca.service.ExtractionCache;
+import com.cerca.service.JsonLinesService;
+import com.cerca.service.LocalWorksIndex;
 import com.cerca.service.LogService;
+import com.cerca.service.OfflineCatalogService;
 import com.cerca.service.OpenAlexService;
 import com.cerca.service.ReportService;
 import com.cerca.service.SemanticScholarService;
+import com.cerca.service.SessionService;
+import com.cerca.service.VerdictHistoryService;
 import com.cerca.service.ZenodoService;
+import com.cerca.utils.DoiNormalizer;
+import com.cerca.utils.IdentifierScanner;
+import com.cerca.utils.ModelRegistry;
 import com.cerca.utils.ReferenceParser;
+import com.cerca.utils.UiUpdateCoalescer;
 import com.cerca.view.MainView;
 
 import javafx.application.Platform;
+import javafx.beans.Observable;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.scene.control.Alert;
@@ -54,37 +74,117 @@ public class MainController {
 	private final ObservableList<ReferenceItem> data;
 	private final CermineService cermineService;
 	private final CrossrefService crossrefService;
+	private final DoiResolverService doiResolverService;
 	private final CsvService csvService;
 	private final ReportService reportService;
+	private final JsonLinesService jsonLinesService;
 	private final LogService logService;
 	private final ZenodoService zenodoService;
 	private final SemanticScholarService semScholarService;
 
 	private final OpenAlexService openAlexService;
 	private final ConfigService configService;
+	private final VerdictHistoryService historyService;
+	private final SessionService sessionService;
+
+	/** Works confirmed in earlier runs, consulted before the network; null when disabled. */
+	private final LocalWorksIndex worksIndex;
+
+	/** Works imported from a metadata dump, for verification without network. */
+	private final OfflineCatalogService offlineCatalog;
+
+	/** Read by the verification threads: when set, only local sources are consulted. */
+	private volatile boolean offlineMode;
+
+	/** The verification run in progress, or the last one. Only touched on the JavaFX thread. */
+	private VerificationJob job;
+
+	/** Applies results from the worker threads to the table once per frame. */
+	private final UiUpdateCoalescer uiUpdates = new UiUpdateCoalescer();
+
+	/** Pass/fail counters behind the dashboard, updated as items change. */
+	private final ResultsSummary results;
+
+	/** The dashboard is shown once the first verification of a load finishes. */
+	private boolean dashboardActive;
+
+	/** Name of the document currently loaded, used to key the verdict history. */
+	private String currentDocument;
+
+	/** Incremented on every load, so late results of a replaced load are dropped. */
+	private volatile int loadGeneration;
 
 	public MainController(MainView view) {
 		this.view = view;
-		this.data = FXCollections.observableArrayList();
-		this.cermineService = new CermineService();
+		// Report status and score changes as list updates, so the table filter re-checks the row
+		this.data = FXCollections.observableArrayList(item -> new Observable[] { item.statusProperty(),
+				item.matchScoreProperty(), item.crossrefTitleProperty() });
+		this.results = new ResultsSummary(data);
+		this.results.setOnChange(this::recalculateDashboard);
 		this.csvService = new CsvService();
 		this.reportService = new ReportService();
+		this.jsonLinesService = new JsonLinesService();
 		this.logService = new LogService();
+		this.cermineService = new CermineService(logService);
 		this.crossrefService = new CrossrefService(logService);
+		this.doiResolverService = new DoiResolverService(logService);
 		this.zenodoService = new ZenodoService(logService);
 		this.openAlexService = new OpenAlexService(logService);
 
 		this.semScholarService = new SemanticScholarService(logService);
 		this.configService = new ConfigService(logService);
+		this.historyService = new VerdictHistoryService(logService);
+		this.sessionService = new SessionService(logService);
 		this.semScholarService.setApiKey(configService.getProperty("SEMANTIC_SCHOLAR_API_KEY"));
 		this.crossrefService.setEmail(configService.getProperty("USER_EMAIL"));
 		this.openAlexService.setEmail(configService.getProperty("USER_EMAIL"));
-		view.getTable().setItems(data);
+		this.cermineService.setSectionOnly(!"false".equals(configService.getProperty("REFERENCE_SECTION_ONLY")));
+		this.cermineService.setWindowPages(configService.getIntProperty("EXTRACTION_WINDOW_PAGES", 20));
+		int heapBudget = configService.getIntProperty("EXTRACTION_HEAP_BUDGET_MB", 0);
+		if (heapBudget > 0) {
+			this.cermineService.setHeapBudgetMb(heapBudget);
+		}
+
+		// Load the CERMINE models while the window opens
+		ModelRegistry.getInstance().warmUp(logService, cermineService.getHeapBudgetMb());
+		this.cermineService.setCache(
+				new ExtractionCache(logService, configService.getIntProperty("EXTRACTION_CACHE_MB", 64)));
+		setupCsvDelimiter(configService.getProperty("CSV_DELIMITER"));
+		this.worksIndex = "false".equals(configService.getProperty("LOCAL_WORKS_INDEX")) ? null
+				: new LocalWorksIndex(logService);
+		if (worksIndex != null) {
+			Thread loader = new Thread(worksIndex::load, "cerca-works-index");
+			loader.setDaemon(true);
+			loader.start();
+		}
+		this.offlineCatalog = new OfflineCatalogService(logService);
+		this.offlineCatalog.open();
+		this.offlineMode = Boolean.parseBoolean(configService.getProperty("OFFLINE_MODE"));
+		view.setReferences(data);
+		view.setOnVisibleRowsChanged(this::updateVisibleRows);
 
 		setupDragAndDrop();
 		setupButtons();
 	}
 
+	/** Accepts a single character, or "tab". */
+	private void setupCsvDelimiter(String value) {
+		if (value == null || value.isEmpty())
+			return;
+
+		try {
+			if (value.equalsIgnoreCase("tab") || value.equals("\\t")) {
+				csvService.setDelimiter('\t');
+			} else if (value.length() == 1) {
+				csvService.setDelimiter(value.charAt(0));
+			} else {
+				throw new IllegalArgumentException("Invalid CSV delimiter: " + value);
+			}
+		} catch (IllegalArgumentException e) {
+			logService.log("WARN", e.getMessage() + ". Using '" + csvService.getDelimiter() + "'.");
+		}
+	}
+
 	private void setupDragAndDrop() {
 		view.getView().setOnDragOver(event -> {
 			if (event.getDragboard().hasFiles()) {
@@ -121,6 +221,7 @@ public class MainController {
 	private void processPdf(File file) {
 
 		view.resetDashboard();
+		dashboardActive = false;
 
 		logService.log("USER", "Loaded PDF file: " + file.getName());
 		view.getFileTitleLabel().setText("Loaded PDF file: " + file.getName());
@@ -131,19 +232,59 @@ public class MainController {
 		view.getStatusLabel().setText("Extracting references from " + file.getName() + "...");
 		view.getProgressBar().setVisible(true);
 
+		// The previous document's run would keep querying the providers
+		cancelVerification();
 		data.clear();
+		currentDocument = file.getName();
+		int generation = ++loadGeneration;
+
+		// Verify each reference as soon as it is extracted, overlapping CERMINE and network I/O
+		boolean pipeline = Boolean.parseBoolean(configService.getProperty("VERIFY_WHILE_EXTRACTING"));
+		VerificationJob pipelineJob = null;
+		if (pipeline) {
+			logService.log("SYSTEM", "Verifying references while extracting.");
+			pipelineJob = startJob();
+		}
+		VerificationJob extractionJob = pipelineJob;
 
 		CompletableFuture.supplyAsync(() -> {
 			try {
-				return cermineService.extractReferences(file);
+				return cermineService.extractReferences(file, item -> {
+					// Another document was loaded while this one was extracting
+					if (generation != loadGeneration)
+						return;
+
+					historyService.restore(file.getName(), item);
+					uiUpdates.post(() -> {
+						if (generation != loadGeneration)
+							return;
+						data.add(item);
+						view.getStatusLabel().setText("Extracting references from " + file.getName() + "... ("
+								+ data.size() + " found)");
+					});
+					if (extractionJob != null && !item.isCarriedForward()) {
+						extractionJob.offer(item);
+					}
+				});
 			} catch (Exception e) {
 
 				throw new CompletionException(e);
 			}
-		}).thenAccept(items -> {
-			Platform.runLater(() -> {
+		}).thenAccept(count -> {
+			if (extractionJob != null) {
+				if (count > 0) {
+					extractionJob.close();
+				} else {
+					extractionJob.cancel();
+				}
+			}
 
-				if (items.isEmpty()) {
+			// After the rows still queued in the coalescer, as it may show a dialog
+			uiUpdates.postLater(() -> {
+				if (generation != loadGeneration)
+					return;
+
+				if (count == 0) {
 					view.getProgressBar().setVisible(false);
 					view.getStatusLabel().setText("Extraction failed.");
 					logService.log("WARN", "Extraction returned 0 references.");
@@ -158,16 +299,33 @@ public class MainController {
 					return;
 				}
 
-				data.addAll(items);
+				long unchanged = data.stream().filter(ReferenceItem::isCarriedForward).count();
+				logService.log("INFO", "Extraction successful. Found " + count + " items.");
+
+				if (pipeline) {
+					view.getStatusLabel().setText("Found " + count + " references. Searching online databases...");
+					return;
+				}
 
-				view.getStatusLabel().setText("Found " + items.size() + " references. Ready to verify.");
-				logService.log("INFO", "Extraction successful. Found " + items.size() + " items.");
+				if (unchanged > 0) {
+					view.getStatusLabel().setText("Found " + count + " references (" + unchanged
+							+ " unchanged since the last run). Ready to verify.");
+				} else {
+					view.getStatusLabel().setText("Found " + count + " references. Ready to verify.");
+				}
 				view.getProgressBar().setVisible(false);
 
 			});
 
 		}).exceptionally(ex -> {
-			Platform.runLater(() -> {
+			if (extractionJob != null) {
+				extractionJob.cancel();
+			}
+			uiUpdates.postLater(() -> {
+				if (generation != loadGeneration)
+					return;
+
+				view.setVerificationControlsVisible(false);
 				view.getProgressBar().setVisible(false);
 
 				Throwable cause = ex.getCause();
@@ -185,6 +343,20 @@ public class MainController {
 					alert.showAndWait();
 				}
 
+				else if (cause instanceof OutOfMemoryError) {
+					logService.log("ERROR", "Extraction ran out of memory: " + file.getName());
+					view.getStatusLabel().setText("Error: Not enough memory to analyse this PDF.");
+
+					Alert alert = new Alert(Alert.AlertType.ERROR);
+					alert.setTitle("Not Enough Memory");
+					alert.setHeaderText("The document is too large for the available memory");
+					alert.setContentText("Cerca ran out of memory while analysing this document.\n\n"
+							+ "Possible solutions:\n" + "1. Start Cerca with more memory (e.g. java -Xmx4g).\n"
+							+ "2. Lower EXTRACTION_WINDOW_PAGES in config.properties.\n"
+							+ "3. Split the PDF and load the part with the references.");
+					alert.showAndWait();
+				}
+
 				else {
 					logService.log("ERROR", "Extraction crashed: " + ex.getMessage());
 					view.getStatusLabel().setText("Error: " + ex.getMessage());
@@ -212,6 +384,22 @@ public class MainController {
 
 		view.getVerifyButton().setOnAction(e -> verifyAll());
 
+		view.getPauseButton().setOnAction(e -> togglePause());
+
+		view.getSaveSessionItem().setOnAction(e -> saveSession());
+
+		view.getOpenSessionItem().setOnAction(e -> openSession());
+
+		view.getRestoreSessionItem().setOnAction(e -> loadSession(sessionService.getLastSessionFile()));
+		view.getRestoreSessionItem().setDisable(!sessionService.getLastSessionFile().exists());
+
+		view.getCancelButton().setOnAction(e -> {
+			if (cancelVerification()) {
+				logService.log("USER", "Verification cancelled.");
+				view.getStatusLabel().setText("Verification cancelled.");
+			}
+		});
+
 		view.getSaveButton().setOnAction(e -> exportData());
 
 		view.getAboutItem().setOnAction(e -> showAboutDialog());
@@ -224,6 +412,23 @@ public class MainController {
 
 		view.getPreferencesItem().setOnAction(e -> openSettingsDialog());
 
+		view.getVerifyWhileExtractingItem()
+				.setSelected(Boolean.parseBoolean(configService.getProperty("VERIFY_WHILE_EXTRACTING")));
+		view.getVerifyWhileExtractingItem().setOnAction(e -> {
+			boolean enabled = view.getVerifyWhileExtractingItem().isSelected();
+			configService.setProperty("VERIFY_WHILE_EXTRACTING", String.valueOf(enabled));
+			logService.log("SYSTEM", "Verify while extracting " + (enabled ? "enabled." : "disabled."));
+		});
+
+		view.getOfflineModeItem().setSelected(offlineMode);
+		view.getOfflineModeItem().setOnAction(e -> {
+			offlineMode = view.getOfflineModeItem().isSelected();
+			configService.setProperty("OFFLINE_MODE", String.valueOf(offlineMode));
+			logService.log("SYSTEM", "Offline mode " + (offlineMode ? "enabled." : "disabled."));
+		});
+
+		view.getImportCatalogItem().setOnAction(e -> importCatalog());
+
 		view.getEmailItem().setOnAction(e -> openEmailDialog());
 	}
 
@@ -265,103 +470,216 @@ public class MainController {
 
 	}
 
+	/** Pushes the current counters to the dashboard. Runs on the JavaFX thread. */
 	private void recalculateDashboard() {
 
-		if (data == null || data.isEmpty())
+		if (!dashboardActive || data.isEmpty())
 			return;
 
-		Platform.runLater(() -> {
-			int total = data.size();
+		view.updateTestResults(results.getTotal(), results.getPassed(), results.getFailed());
+	}
 
-			int passed = (int) data.stream().filter(ReferenceItem::isVerified).count();
+	private void verifyAll() {
+		if (data.isEmpty())
+			return;
 
-			int failed = total - passed;
+		// A run is already going: queue anything it has not seen instead of starting a second one
+		if (job != null && job.isRunning()) {
+			data.stream().filter(item -> !item.isCarriedForward()).forEach(job::offer);
+			view.getStatusLabel().setText("Verification already running...");
+			return;
+		}
 
-			view.updateTestResults(total, passed, failed);
-		});
-	}
+		view.getProgressBar().setVisible(true);
+		view.getStatusLabel().setText("Searching online databases...");
 
-	private void attachDashboardListeners() {
+		VerificationJob run = startJob();
 		for (ReferenceItem item : data) {
 
-			item.verifiedProperty().addListener((obs, wasChecked, isChecked) -> {
-				recalculateDashboard();
-			});
+			// Verdict carried forward from the previous run of this document
+			if (item.isCarriedForward())
+				continue;
+
+			run.offer(item);
 		}
+		run.close();
 	}
 
-	private void verifyAll() {
-		if (data.isEmpty())
+	/** Creates and starts a verification run for the current load. */
+	private VerificationJob startJob() {
+		int generation = loadGeneration;
+		int workers = configService.getIntProperty("VERIFY_WORKERS", 1);
+
+		job = new VerificationJob(workers, this::verifyReference, () -> uiUpdates.postLater(() -> {
+			// Drop the completion of a run whose document was replaced
+			if (generation == loadGeneration)
+				onVerificationFinished();
+		}));
+		updateVisibleRows();
+		job.start();
+		view.setVerificationControlsVisible(true);
+		return job;
+	}
+
+	/** Tells the running job which rows are on screen, so it verifies them first. */
+	private void updateVisibleRows() {
+		if (job != null && job.isRunning())
+			job.setVisibleItems(view.getVisibleItems());
+	}
+
+	private void togglePause() {
+		if (job == null || !job.isRunning())
 			return;
 
-		view.getProgressBar().setVisible(true);
-		view.getStatusLabel().setText("Searching online databases...");
+		if (job.isPaused()) {
+			job.resume();
+			view.getPauseButton().setText("⏸ Pause");
+			view.getProgressBar().setVisible(true);
+			view.getStatusLabel().setText("Searching online databases...");
+		} else {
+			job.pause();
+			view.getPauseButton().setText("▶ Resume");
+			view.getProgressBar().setVisible(false);
+			view.getStatusLabel().setText("Verification paused (" + job.getPendingCount() + " left).");
+		}
+	}
 
-		CompletableFuture.runAsync(() -> {
-			for (ReferenceItem item : data) {
+	/**
+	 * Stops the run in progress, aborting its requests.
+	 *
+	 * @return true if a run was cancelled
+	 */
+	private boolean cancelVerification() {
+		view.setVerificationControlsVisible(false);
+		if (job == null || !job.isRunning())
+			return false;
+
+		job.cancel();
+		view.getProgressBar().setVisible(false);
+		return true;
+	}
 
-				Platform.runLater(() -> {
-					item.statusProperty().set("SEARCHING...");
-				});
+	/**
+	 * Runs one reference through the provider cascade. Called on the
+	 * verification thread.
+	 */
+	private void verifyReference(ReferenceItem item) {
 
-				crossrefService.verifyItem(item);
+		String previousStatus = item.getStatus();
+		uiUpdates.post(() -> item.statusProperty().set("SEARCHING..."));
 
-				// Define what score counts as a "Pass" (e.g., 75%)
-				int PASS_THRESHOLD = 75;
+		// Define what score counts as a "Pass" (e.g., 75%)
+		int PASS_THRESHOLD = 75;
 
-				if (item.getMatchScore() < PASS_THRESHOLD) {
-					// Try OpenAlex
-					openAlexService.verify(item);
-				}
+		// Each provider only runs if the ones before it found no good match
+		Map<String, Long> timings = new LinkedHashMap<>();
+		MatchResult best = null;
 
-				// try zenodo
-				if (item.getMatchScore() < PASS_THRESHOLD && item.getRawText().toLowerCase().contains("zenodo")) {
-					zenodoService.verify(item);
-				}
+		// A work confirmed before needs no request
+		if (worksIndex != null) {
+			best = timed(timings, LocalWorksIndex.SOURCE, () -> worksIndex.match(item));
+		}
 
-				if (item.getMatchScore() < PASS_THRESHOLD) {
+		if (scoreOf(best) < PASS_THRESHOLD && offlineCatalog.isAvailable()) {
+			best = preferLater(best, timed(timings, OfflineCatalogService.SOURCE, () -> offlineCatalog.verify(item)));
+		}
 
-					semScholarService.verify(item);
-				}
+		// Offline: what the local sources found is the verdict
+		boolean online = !offlineMode;
 
-				Platform.runLater(() -> {
+		// A DOI from any registration agency resolves in one request
+		boolean resolved = false;
+		if (online && scoreOf(best) < PASS_THRESHOLD && DoiNormalizer.isDoi(item.getDetectedDoi())) {
+			MatchResult byDoi = timed(timings, DoiResolverService.SOURCE, () -> doiResolverService.verify(item));
+			resolved = byDoi != null;
+			best = preferLater(best, byDoi);
+		}
 
-					if (item.getMatchScore() >= 75) {
-						item.setVerified(true);
-					} else {
-						item.setVerified(false);
-					}
-				});
+		if (online && scoreOf(best) < PASS_THRESHOLD) {
+			// Crossref would return the record doi.org just did, so it only searches by title
+			boolean lookUpDoi = !resolved;
+			MatchResult crossref = timed(timings, "Crossref", () -> crossrefService.verifyItem(item, lookUpDoi));
+			// A title search does not replace the record the cited DOI points to unless it scores higher
+			best = resolved && scoreOf(crossref) <= scoreOf(best) ? best : preferLater(best, crossref);
+		}
 
-				try {
-					Thread.sleep(150);
-				} catch (InterruptedException e) {
-					Thread.currentThread().interrupt();
-				}
+		if (online && scoreOf(best) < PASS_THRESHOLD) {
+			// Try OpenAlex
+			best = preferLater(best, timed(timings, "OpenAlex", () -> openAlexService.verify(item)));
+		}
 
-			}
-		}).thenRun(() -> Platform.runLater(() -> {
+		// try zenodo
+		if (online && scoreOf(best) < PASS_THRESHOLD && item.getRawText().toLowerCase().contains("zenodo")) {
+			best = preferLater(best, timed(timings, "Zenodo", () -> zenodoService.verify(item)));
+		}
 
-			view.getProgressBar().setVisible(false);
-			view.getStatusLabel().setText("Verification Complete.");
+		if (online && scoreOf(best) < PASS_THRESHOLD) {
 
-			view.getSaveButton().setVisible(true);
-			view.getSaveButton().setManaged(true);
+			best = preferLater(best, timed(timings, "Semantic Scholar", () -> semScholarService.verify(item)));
+		}
 
-			if (data != null && !data.isEmpty()) {
-				int total = data.size();
+		// Cancelled: the providers returned early, so their result says nothing
+		if (Thread.currentThread().isInterrupted()) {
+			uiUpdates.post(() -> item.statusProperty().set(previousStatus));
+			return;
+		}
 
-				int passed = (int) data.stream().filter(item -> item.isVerified()).count();
+		if (worksIndex != null && scoreOf(best) >= PASS_THRESHOLD && !LocalWorksIndex.SOURCE.equals(best.getSource())
+				&& !OfflineCatalogService.SOURCE.equals(best.getSource())) {
+			worksIndex.add(best);
+		}
 
-				int failed = total - passed;
+		MatchResult result = best;
+		uiUpdates.post(() -> {
+			item.setStageTimings(timings);
+			item.applyMatch(result);
+		});
 
-				view.updateTestResults(total, passed, failed);
-				attachDashboardListeners();
+		try {
+			Thread.sleep(150);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
 
-				recalculateDashboard();
-			}
+	/** Runs one provider lookup and records how long it took. */
+	private static MatchResult timed(Map<String, Long> timings, String stage, Supplier<MatchResult> lookup) {
+		long start = System.nanoTime();
+		try {
+			return lookup.get();
+		} finally {
+			timings.put(stage, (System.nanoTime() - start) / 1_000_000);
+		}
+	}
 
-		}));
+	private static int scoreOf(MatchResult result) {
+		return result == null ? 0 : result.getScore();
+	}
+
+	/** A fallback provider's plausible match replaces the earlier one, as it searched more broadly. */
+	private static MatchResult preferLater(MatchResult earlier, MatchResult later) {
+		return later != null ? later : earlier;
+	}
+
+	private void onVerificationFinished() {
+
+		view.setVerificationControlsVisible(false);
+
+		view.getProgressBar().setVisible(false);
+		view.getStatusLabel().setText("Verification Complete.");
+
+		view.getSaveButton().setVisible(true);
+		view.getSaveButton().setManaged(true);
+
+		if (data != null && !data.isEmpty()) {
+			historyService.save(currentDocument, data);
+
+			// Pressing Verify again re-checks everything
+			data.forEach(item -> item.setCarriedForward(false));
+
+			dashboardActive = true;
+			recalculateDashboard();
+		}
 	}
 
 	private void exportData() {
@@ -378,8 +696,10 @@ public class MainController {
 
 		FileChooser.ExtensionFilter csvFilter = new FileChooser.ExtensionFilter("CSV Data (*.csv)", "*.csv");
 		FileChooser.ExtensionFilter txtFilter = new FileChooser.ExtensionFilter("Reviewer Report (*.txt)", "*.txt");
+		FileChooser.ExtensionFilter jsonlFilter = new FileChooser.ExtensionFilter(
+				"JSON Lines for analytics (*.jsonl, *.jsonl.gz)", "*.jsonl", "*.jsonl.gz");
 
-		fileChooser.getExtensionFilters().addAll(csvFilter, txtFilter);
+		fileChooser.getExtensionFilters().addAll(csvFilter, txtFilter, jsonlFilter);
 
 		File file = fileChooser.showSaveDialog(view.getView().getScene().getWindow());
 
@@ -389,6 +709,9 @@ public class MainController {
 				if (file.getName().endsWith(".txt")) {
 					reportService.exportReport(data, file);
 					view.getStatusLabel().setText("Report saved: " + file.getName());
+				} else if (file.getName().endsWith(".jsonl") || file.getName().endsWith(".jsonl.gz")) {
+					jsonLinesService.exportToJsonLines(currentDocument, data, file);
+					view.getStatusLabel().setText("Data saved: " + file.getName());
 				} else {
 
 					csvService.exportToCsv(data, file);
@@ -402,29 +725,172 @@ public class MainController {
 		}
 	}
 
-	private void loadManualReferences(String text) {
+	private void saveSession() {
+		if (data.isEmpty()) {
+			view.getStatusLabel().setText("Nothing to save!");
+			return;
+		}
 
-		this.data.clear();
-		this.view.resetDashboard();
+		FileChooser fileChooser = new FileChooser();
+		fileChooser.setTitle("Save Session");
+		fileChooser.setInitialFileName("cerca_session_" + currentDocument.replaceAll("\\.[^.]*$", "") + ".cerca");
+		fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("Cerca Session (*.cerca)", "*.cerca"));
 
-		String[] lines = text.split("\\r?\\n");
+		File file = fileChooser.showSaveDialog(view.getView().getScene().getWindow());
+		if (file != null) {
+			try {
+				sessionService.save(currentDocument, data, file);
+				view.getStatusLabel().setText("Session saved: " + file.getName());
+				logService.log("USER", "Saved session to " + file.getName());
+			} catch (IOException ex) {
+				view.getStatusLabel().setText("Error saving session: " + ex.getMessage());
+				logService.log("ERROR", "Saving session failed: " + ex.getMessage());
+			}
+		}
+	}
 
-		int idCounter = 1;
-		for (String line : lines) {
-			// Skip empty lines
-			if (line.trim().length() < 5)
-				continue;
+	private void openSession() {
+		FileChooser fileChooser = new FileChooser();
+		fileChooser.setTitle("Open Session");
+		fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("Cerca Session (*.cerca)", "*.cerca"));
 
-			ReferenceParser.ParsedData parsedData = ReferenceParser.parse(line);
+		File file = fileChooser.showOpenDialog(view.getView().getScene().getWindow());
+		if (file != null) {
+			loadSession(file);
+		}
+	}
+
+	/** Shows a saved session: no extraction and no requests for the references it holds. */
+	private void loadSession(File file) {
+		SessionService.Session session;
+		try {
+			session = sessionService.load(file);
+		} catch (IOException ex) {
+			view.getStatusLabel().setText("Error opening session: " + ex.getMessage());
+			logService.log("ERROR", "Opening session failed: " + ex.getMessage());
+			return;
+		}
+
+		cancelVerification();
+		loadGeneration++;
+		currentDocument = session.getDocument();
+		data.setAll(session.getItems());
+
+		view.getProgressBar().setVisible(false);
+		view.getFileTitleLabel().setText("Restored session: " + currentDocument);
+		view.getFileTitleLabel().setVisible(true);
+		view.getStatusLabel().setText("Restored " + data.size() + " references.");
+		view.getSaveButton().setVisible(true);
+		view.getSaveButton().setManaged(true);
+		logService.log("USER", "Opened session " + file.getName() + " (" + currentDocument + ")");
 
-			ReferenceItem item = new ReferenceItem(idCounter++, "WAITING", parsedData.authors, parsedData.title, line,
-					"");
+		dashboardActive = true;
+		recalculateDashboard();
+	}
 
-			data.add(item);
+	/**
+	 * Imports a Crossref or OpenAlex metadata dump into the offline catalog in
+	 * the background. References can be verified meanwhile.
+	 */
+	private void importCatalog() {
+		FileChooser fileChooser = new FileChooser();
+		fileChooser.setTitle("Import Metadata Dump");
+		fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter(
+				"Crossref / OpenAlex JSON (*.jsonl, *.json, *.gz)", "*.jsonl", "*.json", "*.gz"));
+
+		File file = fileChooser.showOpenDialog(view.getView().getScene().getWindow());
+		if (file == null)
+			return;
+
+		view.getImportCatalogItem().setDisable(true);
+		view.getStatusLabel().setText("Importing " + file.getName() + "...");
+		logService.log("USER", "Importing metadata dump " + file.getName());
+
+		CompletableFuture.supplyAsync(() -> {
+			try {
+				return offlineCatalog.importDump(file, count -> uiUpdates.post(
+						() -> view.getStatusLabel().setText("Importing " + file.getName() + ": " + count + " works...")));
+			} catch (IOException ex) {
+				throw new CompletionException(ex);
+			}
+		}).whenComplete((count, ex) -> uiUpdates.postLater(() -> {
+			view.getImportCatalogItem().setDisable(false);
+			if (ex != null) {
+				Throwable cause = ex instanceof CompletionException ? ex.getCause() : ex;
+				view.getStatusLabel().setText("Import failed: " + cause.getMessage());
+				logService.log("ERROR", "Importing " + file.getName() + " failed: " + cause.getMessage());
+			} else {
+				view.getStatusLabel().setText("Imported " + count + " works into the offline catalog.");
+			}
+		}));
+	}
+
+	/** Called when the window closes: stops verification and keeps the session for next time. */
+	public void shutdown() {
+		cancelVerification();
+		if (worksIndex != null)
+			worksIndex.close();
+		offlineCatalog.close();
+		if (data.isEmpty())
+			return;
+
+		try {
+			sessionService.save(currentDocument, data, sessionService.getLastSessionFile());
+		} catch (IOException ex) {
+			logService.log("ERROR", "Saving the last session failed: " + ex.getMessage());
 		}
+	}
+
+	private void loadManualReferences(String text) {
+
+		cancelVerification();
+		this.data.clear();
+		this.view.resetDashboard();
+		this.dashboardActive = false;
+		// Captured here: the worker must not read fields a newer load may change
+		String document = "Manual Entry";
+		this.currentDocument = document;
+		int generation = ++loadGeneration;
+
+		// Skip empty lines
+		List<String> lines = text.lines().filter(line -> line.trim().length() >= 5).collect(Collectors.toList());
 
 		this.view.getFileTitleLabel().setText("Source: Manual Entry");
-		this.view.getStatusLabel().setText("Loaded " + data.size() + " references. Ready to verify.");
+		this.view.getStatusLabel().setText("Parsing " + lines.size() + " references...");
+		this.view.getProgressBar().setVisible(true);
+
+		// Each line is independent, so parse them in parallel; the list keeps the pasted order
+		CompletableFuture.supplyAsync(() -> {
+			List<ReferenceItem> items = IntStream.range(0, lines.size()).parallel().mapToObj(i -> {
+				String line = lines.get(i);
+				ReferenceParser.ParsedData parsedData = ReferenceParser.parse(line);
+				ReferenceItem item = new ReferenceItem(i + 1, "WAITING", parsedData.authors, parsedData.title, line, "");
+				IdentifierScanner.apply(item);
+				return item;
+			}).collect(Collectors.toList());
+
+			if (generation == loadGeneration)
+				historyService.restore(document, items);
+			return items;
+		}).thenAccept(items -> Platform.runLater(() -> {
+			// A newer paste or PDF replaced this one while it was parsing
+			if (generation != loadGeneration)
+				return;
+
+			data.setAll(items);
+			view.getProgressBar().setVisible(false);
+			view.getStatusLabel().setText("Loaded " + data.size() + " references. Ready to verify.");
+		})).exceptionally(ex -> {
+			Platform.runLater(() -> {
+				if (generation != loadGeneration)
+					return;
+
+				view.getProgressBar().setVisible(false);
+				view.getStatusLabel().setText("Error: " + ex.getMessage());
+			});
+			logService.log("ERROR", "Parsing manual references failed: " + ex.getMessage());
+			return null;
+		});
 	}
 
 	public void openSettingsDialog() {
@@ -0,0 +1,269 @@
+package com.cerca.controller;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+import com.cerca.model.ReferenceItem;
+import com.cerca.utils.DoiNormalizer;
+
+/**
+ * One verification run over a set of references, with pause, resume and
+ * cancel.
+ *
+ * References are queued with {@link #offer(ReferenceItem)}, either all at
+ * once from the Verify button or one by one as extraction finds them. Once
+ * {@link #close()} has been called and the queue is drained, the job calls
+ * its completion callback. A reference already queued or verified in this job
+ * is not queued again.
+ *
+ * References are not verified in the order they were queued. Each time a
+ * worker is free it takes the most useful one: first the rows the user can
+ * see, then references with a DOI (a single cheap lookup), then references
+ * whose title could not be parsed (the ones most likely to fail), and then
+ * the rest, each group in list order.
+ *
+ * Pausing lets the references in flight finish and stops taking new ones.
+ * Cancelling interrupts the worker threads, which aborts their HTTP requests;
+ * the completion callback is then not called.
+ *
+ * @author Lidiany Cerqueira
+ */
+public class VerificationJob {
+
+	private final Consumer<ReferenceItem> verifier;
+	private final Runnable onFinished;
+	private final List<Thread> workers = new ArrayList<>();
+
+	private final ReentrantLock lock = new ReentrantLock();
+	private final Condition changed = lock.newCondition();
+	private final LinkedList<ReferenceItem> queue = new LinkedList<>();
+	private final Set<ReferenceItem> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+	private Set<ReferenceItem> visible = Collections.emptySet();
+
+	private boolean paused;
+	private boolean cancelled;
+	private boolean closed;
+	private int liveWorkers;
+
+	/**
+	 * @param workerCount number of references verified at the same time
+	 * @param verifier    runs the provider cascade for one reference; called on
+	 *                    a worker thread
+	 * @param onFinished  called on the last worker thread once every reference
+	 *                    is verified, unless the job was cancelled
+	 */
+	public VerificationJob(int workerCount, Consumer<ReferenceItem> verifier, Runnable onFinished) {
+		this.verifier = verifier;
+		this.onFinished = onFinished;
+		this.liveWorkers = Math.max(1, workerCount);
+
+		for (int i = 0; i < liveWorkers; i++) {
+			Thread t = new Thread(this::work, "cerca-verify-" + (i + 1));
+			t.setDaemon(true);
+			workers.add(t);
+		}
+	}
+
+	public void start() {
+		workers.forEach(Thread::start);
+	}
+
+	/** Queues a reference, unless this job has already seen it. */
+	public void offer(ReferenceItem item) {
+		lock.lock();
+		try {
+			if (cancelled || closed || !seen.add(item))
+				return;
+			queue.addLast(item);
+			changed.signal();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/** Updates the rows on screen, which are verified first. */
+	public void setVisibleItems(Collection<ReferenceItem> items) {
+		Set<ReferenceItem> snapshot = Collections.newSetFromMap(new IdentityHashMap<>());
+		snapshot.addAll(items);
+		lock.lock();
+		try {
+			visible = snapshot;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/** No more references will be offered; the job finishes once the queue is empty. */
+	public void close() {
+		lock.lock();
+		try {
+			closed = true;
+			changed.signalAll();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public void pause() {
+		lock.lock();
+		try {
+			paused = true;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public void resume() {
+		lock.lock();
+		try {
+			paused = false;
+			changed.signalAll();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/** Stops the job and aborts the requests in flight. Safe to call more than once. */
+	public void cancel() {
+		lock.lock();
+		try {
+			if (cancelled || liveWorkers == 0)
+				return;
+			cancelled = true;
+			queue.clear();
+			changed.signalAll();
+		} finally {
+			lock.unlock();
+		}
+		workers.forEach(Thread::interrupt);
+	}
+
+	public boolean isPaused() {
+		lock.lock();
+		try {
+			return paused;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public boolean isCancelled() {
+		lock.lock();
+		try {
+			return cancelled;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/** @return true until the job has finished or been cancelled */
+	public boolean isRunning() {
+		lock.lock();
+		try {
+			return !cancelled && liveWorkers > 0;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/** @return references queued and not yet started */
+	public int getPendingCount() {
+		lock.lock();
+		try {
+			return queue.size();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private void work() {
+		ReferenceItem item;
+		while ((item = take()) != null) {
+			try {
+				verifier.accept(item);
+			} catch (RuntimeException e) {
+				e.printStackTrace();
+			}
+		}
+
+		boolean last;
+		lock.lock();
+		try {
+			last = --liveWorkers == 0 && !cancelled;
+		} finally {
+			lock.unlock();
+		}
+		if (last)
+			onFinished.run();
+	}
+
+	/**
+	 * Waits for the next reference.
+	 *
+	 * @return the reference, or null once the job is cancelled or there is
+	 *         nothing left to do
+	 */
+	private ReferenceItem take() {
+		lock.lock();
+		try {
+			while (true) {
+				if (cancelled)
+					return null;
+				if (!paused && !queue.isEmpty())
+					return next();
+				if (closed && queue.isEmpty())
+					return null;
+				changed.await();
+			}
+		} catch (InterruptedException e) {
+			return null;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Picks the next reference to verify. Called with the lock held.
+	 *
+	 * Priorities are evaluated at take time, as the visible rows change while
+	 * the job runs; the queue holds at most a few hundred references.
+	 */
+	private ReferenceItem next() {
+		Iterator<ReferenceItem> it = queue.iterator();
+		ReferenceItem best = null;
+		int bestPriority = Integer.MAX_VALUE;
+		int bestIndex = -1;
+
+		for (int i = 0; it.hasNext() && bestPriority > 0; i++) {
+			ReferenceItem item = it.next();
+			int priority = priority(item);
+			if (priority < bestPriority) {
+				best = item;
+				bestPriority = priority;
+				bestIndex = i;
+			}
+		}
+		queue.remove(bestIndex);
+		return best;
+	}
+
+	/** Lower runs first. */
+	private int priority(ReferenceItem item) {
+		if (visible.contains(item))
+			return 0;
+		if (DoiNormalizer.isDoi(item.getDetectedDoi()))
+			return 1;
+		if (item.isRawFallback())
+			return 2;
+		return 3;
+	}
+}
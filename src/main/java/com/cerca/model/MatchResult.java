@@ -0,0 +1,73 @@
+package com.cerca.model;
+
+/**
+ * The best record a metadata provider found for a reference, with its score.
+ *
+ * Providers build this on a worker thread without touching the
+ * {@link ReferenceItem}; the controller then applies the best result to the
+ * item on the JavaFX thread with {@link ReferenceItem#applyMatch(MatchResult)}.
+ */
+public class MatchResult {
+
+	private final String source;
+	private final String dbTitle;
+	private final String dbAuthors;
+	private final String dbDoi;
+	private final int titleScore;
+	private final int authorScore;
+	private final int score;
+	private final int year;
+
+	public MatchResult(String source, String dbTitle, String dbAuthors, String dbDoi, int titleScore,
+			int authorScore, int score) {
+		this(source, dbTitle, dbAuthors, dbDoi, titleScore, authorScore, score, 0);
+	}
+
+	/** @param year publication year of the record, 0 if unknown */
+	public MatchResult(String source, String dbTitle, String dbAuthors, String dbDoi, int titleScore,
+			int authorScore, int score, int year) {
+		this.source = source;
+		this.dbTitle = dbTitle;
+		this.dbAuthors = dbAuthors;
+		this.dbDoi = dbDoi == null ? "" : dbDoi;
+		this.titleScore = titleScore;
+		this.authorScore = authorScore;
+		this.score = score;
+		this.year = year;
+	}
+
+	/** @return the provider that returned the record, e.g. "Crossref" */
+	public String getSource() {
+		return source;
+	}
+
+	public String getDbTitle() {
+		return dbTitle;
+	}
+
+	public String getDbAuthors() {
+		return dbAuthors;
+	}
+
+	public String getDbDoi() {
+		return dbDoi;
+	}
+
+	public int getTitleScore() {
+		return titleScore;
+	}
+
+	public int getAuthorScore() {
+		return authorScore;
+	}
+
+	/** @return the combined match score, 0-100 */
+	public int getScore() {
+		return score;
+	}
+
+	/** @return the publication year of the record, or 0 if unknown */
+	public int getYear() {
+		return year;
+	}
+}
@@ -0,0 +1,88 @@
+package com.cerca.model;
+
+import java.util.function.Predicate;
+
+import com.cerca.utils.TextNormalizer;
+
+/**
+ * The criteria of the results table's filter bar: words to find in the titles
+ * and authors, a status, and a match score range.
+ *
+ * Words are matched against {@link ReferenceItem#getSearchKey()}, which is
+ * folded once per reference, so a keystroke only costs a few substring
+ * searches per row.
+ */
+public class ReferenceFilter implements Predicate<ReferenceItem> {
+
+	/** Status groups offered by the filter bar. */
+	public enum StatusFilter {
+		ALL("All statuses"), PASS("✅ Pass"), CHECK("! Check"), FAIL("❌ Fail"), NOT_FOUND("❌ Not found"),
+		PENDING("Not verified");
+
+		private final String label;
+
+		StatusFilter(String label) {
+			this.label = label;
+		}
+
+		boolean matches(String status) {
+			if (status == null)
+				status = "";
+			switch (this) {
+			case PASS:
+				return status.startsWith("✅ PASS");
+			case CHECK:
+				return status.startsWith("! CHECK");
+			case FAIL:
+				return status.startsWith("❌ FAIL");
+			case NOT_FOUND:
+				return status.startsWith("❌ NOT FOUND");
+			case PENDING:
+				return !status.startsWith("✅") && !status.startsWith("!") && !status.startsWith("❌");
+			default:
+				return true;
+			}
+		}
+
+		@Override
+		public String toString() {
+			return label;
+		}
+	}
+
+	private final String[] words;
+	private final StatusFilter status;
+	private final int minScore;
+	private final int maxScore;
+
+	public ReferenceFilter(String text, StatusFilter status, int minScore, int maxScore) {
+		String query = TextNormalizer.fold(text == null ? "" : text.trim());
+		this.words = query.isEmpty() ? new String[0] : query.split("\\s+");
+		this.status = status == null ? StatusFilter.ALL : status;
+		this.minScore = minScore;
+		this.maxScore = maxScore;
+	}
+
+	/** @return true if this filter lets every reference through */
+	public boolean isEmpty() {
+		return words.length == 0 && status == StatusFilter.ALL && minScore <= 0 && maxScore >= 100;
+	}
+
+	@Override
+	public boolean test(ReferenceItem item) {
+		int score = item.getMatchScore();
+		if (score < minScore || score > maxScore)
+			return false;
+		if (!status.matches(item.getStatus()))
+			return false;
+
+		if (words.length > 0) {
+			String key = item.getSearchKey();
+			for (String word : words) {
+				if (!key.contains(word))
+					return false;
+			}
+		}
+		return true;
+	}
+}
@@ -1,5 +1,10 @@
 package com.cerca.model;
 
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javafx.beans.InvalidationListener;
 import javafx.beans.property.BooleanProperty;
 import javafx.beans.property.IntegerProperty;
 import javafx.beans.property.ObjectProperty;
@@ -11,6 +16,8 @@ import javafx.beans.property.StringProperty;
 import javafx.beans.value.WritableIntegerValue;
 import javafx.scene.paint.Color;
 
+import com.cerca.utils.TextNormalizer;
+
 /**
  * Represents a reference entry displayed in the CERCA user interface.
  *
@@ -34,7 +41,19 @@ public class ReferenceItem {
 	private final StringProperty dbAuthors; 
 	private final StringProperty doi;
 	private String rawText;
+	private String isbn;
+	private String arxivId;
+	private String url;
 	private final BooleanProperty verified;
+	private boolean carriedForward;
+	private MatchResult match;
+	private Map<String, Long> stageTimings = Collections.emptyMap();
+
+	// Normalized forms, computed once and shared by every provider
+	private volatile String foldedTitle;
+	private volatile String foldedRawText;
+	private volatile String queryText;
+	private String searchKey;
 
 	public ReferenceItem(int id, String status, String authors, String pdfTitle, String rawText, String doi) {
 		this.id = new SimpleIntegerProperty(id);
@@ -48,6 +67,17 @@ public class ReferenceItem {
 		this.dbAuthors = new SimpleStringProperty(""); 
 		this.doi = new SimpleStringProperty(doi);
 		this.verified = new SimpleBooleanProperty(false);
+
+		this.pdfTitle.addListener((obs, oldVal, newVal) -> {
+			foldedTitle = null;
+			queryText = null;
+		});
+
+		InvalidationListener searchKeyReset = obs -> searchKey = null;
+		this.authors.addListener(searchKeyReset);
+		this.pdfTitle.addListener(searchKeyReset);
+		this.dbTitle.addListener(searchKeyReset);
+		this.dbAuthors.addListener(searchKeyReset);
 		
 		this.verified.addListener((obs, oldVal, isChecked) -> {
             if (isChecked) {
@@ -79,6 +109,14 @@ public class ReferenceItem {
 		return status;
 	}
 
+	public String getStatus() {
+		return status.get();
+	}
+
+	public Color getStatusColor() {
+		return statusColor.get();
+	}
+
 	public ObjectProperty<javafx.scene.paint.Color> statusColorProperty() {
 		return statusColor;
 	}
@@ -113,6 +151,62 @@ public class ReferenceItem {
 	public String getRawText() {
 		return rawText;
 	}
+
+	/**
+	 * @return true if CERMINE found no usable title and the raw reference text
+	 *         has to be used for searching instead
+	 */
+	public boolean isRawFallback() {
+		String title = getPdfTitle();
+		return title == null || title.equals("Unknown Title") || title.length() < 5;
+	}
+
+	/** @return the PDF title, lowercased and without diacritics */
+	public String getFoldedTitle() {
+		String folded = foldedTitle;
+		if (folded == null) {
+			folded = TextNormalizer.fold(getPdfTitle());
+			foldedTitle = folded;
+		}
+		return folded;
+	}
+
+	/** @return the raw reference text, lowercased and without diacritics */
+	public String getFoldedRawText() {
+		String folded = foldedRawText;
+		if (folded == null) {
+			folded = TextNormalizer.fold(rawText);
+			foldedRawText = folded;
+		}
+		return folded;
+	}
+
+	/**
+	 * @return the PDF and database titles and authors, folded like
+	 *         {@link #getFoldedTitle()}, for searching the results table
+	 */
+	public String getSearchKey() {
+		String key = searchKey;
+		if (key == null) {
+			key = TextNormalizer.fold(authors.get() + "\n" + pdfTitle.get() + "\n" + dbTitle.get() + "\n"
+					+ dbAuthors.get());
+			searchKey = key;
+		}
+		return key;
+	}
+
+	/**
+	 * @return the title (or the raw text, see {@link #isRawFallback()}) reduced
+	 *         to letters and digits, ready to be sent as a search query
+	 */
+	public String getQueryText() {
+		String query = queryText;
+		if (query == null) {
+			query = TextNormalizer.toQuery(isRawFallback() ? rawText : getPdfTitle());
+			queryText = query;
+		}
+		return query;
+	}
 	
 
 	public StringProperty dBAuthorsProperty() {
@@ -131,6 +225,33 @@ public class ReferenceItem {
 		return doi.get();
 	}
 
+	/** @return the ISBN found in the raw text, or null */
+	public String getIsbn() {
+		return isbn;
+	}
+
+	public void setIsbn(String isbn) {
+		this.isbn = isbn;
+	}
+
+	/** @return the arXiv id found in the raw text, or null */
+	public String getArxivId() {
+		return arxivId;
+	}
+
+	public void setArxivId(String arxivId) {
+		this.arxivId = arxivId;
+	}
+
+	/** @return the first URL found in the raw text, or null */
+	public String getUrl() {
+		return url;
+	}
+
+	public void setUrl(String url) {
+		this.url = url;
+	}
+
 	public String getDbTitle() {
 		return dbTitle.get();
 	}
@@ -167,4 +288,85 @@ public class ReferenceItem {
 		setVerified(true);		
 	}
 
+	/**
+	 * Applies the outcome of the provider cascade. Must be called on the JavaFX
+	 * thread.
+	 *
+	 * @param match the best record found, or null if no provider found one
+	 */
+	public void applyMatch(MatchResult match) {
+		this.match = match;
+
+		if (match == null) {
+			setCrossrefData("", "", 0);
+			setVerified(false);
+			this.status.set("❌ NOT FOUND");
+			this.statusColor.set(Color.RED);
+			return;
+		}
+
+		int score = match.getScore();
+		setCrossrefData(match.getDbTitle(), match.getDbAuthors(), score);
+		setVerified(score >= 75);
+
+		if (score >= 75) {
+			this.status.set("✅ PASS");
+			this.statusColor.set(Color.GREEN);
+		} else if (score > 50) {
+			this.status.set("! CHECK");
+			this.statusColor.set(Color.ORANGE);
+		} else {
+			this.status.set("❌ FAIL");
+			this.statusColor.set(Color.RED);
+		}
+	}
+
+	/** @return the record applied by the last verification, or null */
+	public MatchResult getMatch() {
+		return match;
+	}
+
+	/** Sets the matched record without changing the verdict, e.g. when reloading a session. */
+	public void setMatch(MatchResult match) {
+		this.match = match;
+	}
+
+	/**
+	 * @return milliseconds spent on each provider by the last verification, in
+	 *         the order they were queried
+	 */
+	public Map<String, Long> getStageTimings() {
+		return stageTimings;
+	}
+
+	public void setStageTimings(Map<String, Long> timings) {
+		this.stageTimings = Collections.unmodifiableMap(new LinkedHashMap<>(timings));
+	}
+
+	/**
+	 * Applies a verdict saved by a previous run without querying any provider.
+	 * The status is set last so the listener on {@code verified} cannot
+	 * overwrite it.
+	 */
+	public void restoreVerdict(String status, Color color, int score, String dbTitle, String dbAuthors,
+			boolean verified) {
+		setCrossrefData(dbTitle, dbAuthors, score);
+		setVerified(verified);
+		this.status.set(status);
+		this.statusColor.set(color);
+		this.carriedForward = true;
+	}
+
+	/**
+	 * @return true if the verdict was carried forward from a previous run and
+	 *         the reference does not need to be sent to the providers again
+	 */
+	public boolean isCarriedForward() {
+		return carriedForward;
+	}
+
+	public void setCarriedForward(boolean carriedForward) {
+		this.carriedForward = carriedForward;
+	}
+
 }
\ No newline at end of file
@@ -0,0 +1,76 @@
+package com.cerca.model;
+
+import javafx.beans.value.ChangeListener;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+
+/**
+ * Pass/fail counters for a list of references, kept up to date as the
+ * list and its items change, so the dashboard never has to scan the list.
+ *
+ * One listener is registered on each item when it is added to the list and
+ * removed when it leaves it. Like the list it watches, this class must only
+ * be used on the JavaFX thread.
+ */
+public class ResultsSummary {
+
+	private final ObservableList<ReferenceItem> items;
+	private int passed;
+	private Runnable onChange;
+
+	private final ChangeListener<Boolean> verifiedListener = (obs, was, now) -> {
+		passed += now ? 1 : -1;
+		fireChange();
+	};
+
+	public ResultsSummary(ObservableList<ReferenceItem> items) {
+		this.items = items;
+		items.forEach(this::track);
+		items.addListener((ListChangeListener<ReferenceItem>) change -> {
+			while (change.next()) {
+				// Permutations and in-place updates leave the counts as they are
+				if (change.wasPermutated() || change.wasUpdated())
+					continue;
+				change.getRemoved().forEach(this::untrack);
+				change.getAddedSubList().forEach(this::track);
+			}
+			fireChange();
+		});
+	}
+
+	/** Sets the callback run after every change of the counters. */
+	public void setOnChange(Runnable onChange) {
+		this.onChange = onChange;
+	}
+
+	public int getTotal() {
+		return items.size();
+	}
+
+	/** @return references whose verified box is ticked */
+	public int getPassed() {
+		return passed;
+	}
+
+	/** @return references that are not verified, as shown on the dashboard */
+	public int getFailed() {
+		return items.size() - passed;
+	}
+
+	private void track(ReferenceItem item) {
+		if (item.isVerified())
+			passed++;
+		item.verifiedProperty().addListener(verifiedListener);
+	}
+
+	private void untrack(ReferenceItem item) {
+		item.verifiedProperty().removeListener(verifiedListener);
+		if (item.isVerified())
+			passed--;
+	}
+
+	private void fireChange() {
+		if (onChange != null)
+			onChange.run();
+	}
+}
@@ -1,6 +1,14 @@
 package com.cerca.service;
 
 import com.cerca.model.ReferenceItem;
+import com.cerca.utils.IdentifierScanner;
+import com.cerca.utils.ModelRegistry;
+import com.cerca.utils.ReferenceSectionLocator;
+import com.cerca.utils.ReferenceSectionLocator.PageRange;
+import com.cerca.utils.ReferenceWindows;
+
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.apache.pdfbox.pdmodel.PDDocument;
 import pl.edu.icm.cermine.ContentExtractor;
 import pl.edu.icm.cermine.bibref.model.BibEntry;
 import pl.edu.icm.cermine.bibref.model.BibEntryFieldType; // Important!
@@ -8,8 +16,11 @@ import pl.edu.icm.cermine.bibref.model.BibEntryFieldType; // Important!
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Extracts bibliographic references from PDF documents using the CERMINE library.
@@ -25,47 +36,242 @@ import java.util.List;
  */
 public class CermineService {
 
+    /** Rough CERMINE heap cost of one page, used to size the page windows. */
+    private static final int ESTIMATED_MB_PER_PAGE = 12;
+
+    private final LogService logger;
+    private boolean sectionOnly = true;
+    private int windowPages = 20;
+    private long heapBudgetMb = Runtime.getRuntime().maxMemory() / (2 * 1024 * 1024);
+    private ExtractionCache cache;
+
+    public CermineService() {
+        this(null);
+    }
+
+    public CermineService(LogService logger) {
+        this.logger = logger;
+    }
+
+    /**
+     * @param sectionOnly if true (the default), only the pages of the detected
+     *                    reference section are analysed by CERMINE
+     */
+    public void setSectionOnly(boolean sectionOnly) {
+        this.sectionOnly = sectionOnly;
+    }
+
+    /**
+     * @param windowPages documents longer than this are analysed in windows of
+     *                    at most this many pages
+     */
+    public void setWindowPages(int windowPages) {
+        this.windowPages = Math.max(1, windowPages);
+    }
+
+    /**
+     * @param heapBudgetMb heap the extraction may use; it bounds the window size
+     *                     and how much of the PDF PDFBox keeps in memory
+     */
+    public void setHeapBudgetMb(long heapBudgetMb) {
+        this.heapBudgetMb = Math.max(16, heapBudgetMb);
+    }
+
+    public long getHeapBudgetMb() {
+        return heapBudgetMb;
+    }
+
+    /** @param cache remembers the references of files already extracted; null disables it */
+    public void setCache(ExtractionCache cache) {
+        this.cache = cache;
+    }
+
     public List<ReferenceItem> extractReferences(File pdfFile) throws Exception {
         List<ReferenceItem> results = new ArrayList<>();
-        
-        
-        ContentExtractor extractor = new ContentExtractor();
-        
+        extractReferences(pdfFile, results::add);
+        return results;
+    }
+
+    /**
+     * Streaming variant: each reference is handed to {@code onReference} as soon
+     * as it is available, so the caller can show or verify it while the rest of
+     * the document is still being processed.
+     *
+     * @return the number of references emitted
+     */
+    public int extractReferences(File pdfFile, Consumer<ReferenceItem> onReference) throws Exception {
+        String key = cacheKey(pdfFile);
+        if (key == null) {
+            return extract(pdfFile, onReference);
+        }
+
+        List<ReferenceItem> cached = cache.get(key);
+        if (cached != null) {
+            log("INFO", "Loaded " + cached.size() + " references of " + pdfFile.getName()
+                    + " from the extraction cache.");
+            cached.forEach(onReference);
+            return cached.size();
+        }
+
+        List<ReferenceItem> extracted = new ArrayList<>();
+        int count = extract(pdfFile, onReference.andThen(extracted::add));
+        if (count > 0) {
+            cache.put(key, pdfFile.getName(), extracted);
+        }
+        return count;
+    }
+
+    /** @return the cache key of the file's content, or null if the cache is off or the file unreadable */
+    private String cacheKey(File pdfFile) {
+        if (cache == null || !cache.isEnabled()) return null;
+        try {
+            return cache.keyOf(pdfFile, sectionOnly ? "section" : "full");
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private int extract(File pdfFile, Consumer<ReferenceItem> onReference) throws Exception {
+        PDDocument document = load(pdfFile);
+        if (document != null) {
+            try (PDDocument doc = document) {
+                int pageCount = doc.getNumberOfPages();
+
+                if (sectionOnly) {
+                    PageRange range = locateSection(doc);
+                    if (range != null) {
+                        int count = extractPages(doc, range, onReference);
+                        if (count > 0) return count;
+                        log("INFO", "No references found in the detected section, analysing the whole document.");
+                    }
+                }
+
+                if (pageCount > windowPages) {
+                    return extractPages(doc, new PageRange(1, pageCount), onReference);
+                }
+            }
+        }
+
         try (InputStream is = new FileInputStream(pdfFile)) {
-            extractor.setPDF(is);
-            
-            
-            List<BibEntry> references = extractor.getReferences();
-
-            int idCounter = 1;
-            for (BibEntry ref : references) {
-               
-                String raw = ref.getText();
-
-                
-                String title = ref.getFirstFieldValue(BibEntryFieldType.TITLE);
-                if (title == null) title = "Unknown Title";
-
-                
-                String doi = ref.getFirstFieldValue(BibEntryFieldType.DOI);
-                
-                
-                List<String> authorList = ref.getAllFieldValues(BibEntryFieldType.AUTHOR);
-                String authors = (authorList != null && !authorList.isEmpty()) 
-                                 ? String.join("; ", authorList) 
-                                 : "Unknown Authors";
-
-               
-                results.add(new ReferenceItem(
-                    idCounter++, 
-                    "WAITING", 
-                    authors, 
-                    title, 
-                    raw, 
-                    doi
-                ));
+            return emit(runCermine(is), onReference);
+        }
+    }
+
+    /**
+     * Opens the PDF with PDFBox, keeping at most a quarter of the heap budget in
+     * memory and the rest in temporary files.
+     *
+     * @return the document, or null when PDFBox cannot read it (CERMINE then
+     *         reports the problem with the original file)
+     */
+    private PDDocument load(File pdfFile) {
+        try {
+            return PDDocument.load(pdfFile, MemoryUsageSetting.setupMixed(heapBudgetMb * 1024 * 1024 / 4));
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private PageRange locateSection(PDDocument document) {
+        long start = System.currentTimeMillis();
+        try {
+            PageRange range = ReferenceSectionLocator.locate(document);
+            if (range == null) {
+                log("INFO", "Reference section not detected, analysing the whole document.");
+            } else {
+                log("INFO", String.format("Reference section found on %s of %d (%d ms).",
+                        range, document.getNumberOfPages(), System.currentTimeMillis() - start));
             }
+            return range;
+        } catch (Exception e) {
+            return null;
         }
-        return results;
+    }
+
+    /**
+     * Runs CERMINE over a page range in windows small enough for the heap
+     * budget. Each window is written to a temporary PDF, so only one window's
+     * layout model is in memory at a time, and its references are emitted
+     * before the next window starts. See {@link ReferenceWindows} for how
+     * references cut by a window boundary are joined.
+     */
+    private int extractPages(PDDocument document, PageRange range, Consumer<ReferenceItem> onReference)
+            throws Exception {
+        int windowSize = (int) Math.max(ReferenceWindows.MIN_WINDOW_PAGES,
+                Math.min(windowPages, heapBudgetMb / ESTIMATED_MB_PER_PAGE));
+        if (range.size() > windowSize) {
+            log("INFO", String.format("Analysing %s in windows of %d pages (heap budget %d MB).",
+                    range, windowSize, heapBudgetMb));
+        }
+
+        int[] idCounter = { 1 };
+        return ReferenceWindows.extract(range.first, range.last, windowSize,
+                (first, last) -> runWindow(document, first, last),
+                ref -> onReference.accept(toItem(ref, idCounter[0]++)));
+    }
+
+    private List<BibEntry> runWindow(PDDocument document, int firstPage, int lastPage) throws Exception {
+        Path window = Files.createTempFile("cerca-window-", ".pdf");
+        try {
+            try (PDDocument part = new PDDocument()) {
+                for (int page = firstPage; page <= lastPage; page++) {
+                    part.importPage(document.getPage(page - 1));
+                }
+                part.save(window.toFile());
+            }
+            try (InputStream is = Files.newInputStream(window)) {
+                return runCermine(is);
+            }
+        } finally {
+            Files.deleteIfExists(window);
+        }
+    }
+
+    private List<BibEntry> runCermine(InputStream pdf) throws Exception {
+        ContentExtractor extractor = ModelRegistry.getInstance().takeExtractor();
+        extractor.setPDF(pdf);
+        return extractor.getReferences();
+    }
+
+    private int emit(List<BibEntry> references, Consumer<ReferenceItem> onReference) {
+        int idCounter = 1;
+        for (BibEntry ref : references) {
+            onReference.accept(toItem(ref, idCounter++));
+        }
+        return idCounter - 1;
+    }
+
+    private void log(String category, String message) {
+        if (logger != null) logger.log(category, message);
+    }
+
+    private ReferenceItem toItem(BibEntry ref, int id) {
+        String raw = ref.getText();
+
+        
+        String title = ref.getFirstFieldValue(BibEntryFieldType.TITLE);
+        if (title == null) title = "Unknown Title";
+
+        
+        String doi = ref.getFirstFieldValue(BibEntryFieldType.DOI);
+        
+        
+        List<String> authorList = ref.getAllFieldValues(BibEntryFieldType.AUTHOR);
+        String authors = (authorList != null && !authorList.isEmpty()) 
+                         ? String.join("; ", authorList) 
+                         : "Unknown Authors";
+
+       
+        ReferenceItem item = new ReferenceItem(
+            id, 
+            "WAITING", 
+            authors, 
+            title, 
+            raw, 
+            doi
+        );
+        // A DOI or arXiv id printed in the text that CERMINE did not tag as a field
+        IdentifierScanner.apply(item);
+        return item;
     }
 }
\ No newline at end of file
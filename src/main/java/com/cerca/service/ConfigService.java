@@ -44,6 +44,21 @@ public class ConfigService {
         return properties.getProperty(key, "");
     }
 
+    /**
+     * @return the property as a number, or {@code defaultValue} when it is
+     *         missing or not a number
+     */
+    public int getIntProperty(String key, int defaultValue) {
+        String value = getProperty(key).trim();
+        if (value.isEmpty()) return defaultValue;
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            logger.log("WARNING", "Invalid number for " + key + ": " + value);
+            return defaultValue;
+        }
+    }
+
     public void setProperty(String key, String value) {
         properties.setProperty(key, value.trim());
         saveProperties();
@@ -7,13 +7,15 @@ import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
 
+import com.cerca.model.MatchResult;
 import com.cerca.model.ReferenceItem;
+import com.cerca.utils.DoiNormalizer;
+import com.cerca.utils.MatchScorer;
+import com.cerca.utils.SingleFlight;
+import com.cerca.utils.TextNormalizer;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 
-import javafx.scene.paint.Color;
-import me.xdrop.fuzzywuzzy.FuzzySearch;
-
 /**
  * Queries the Crossref API to retrieve authoritative bibliographic metadata.
  *
@@ -27,6 +29,9 @@ public class CrossrefService {
 	
 	private final LogService logger;
 	private final HttpClient client;
+
+	/** Identical requests from concurrent verifications share one response. */
+	private final SingleFlight<String, String> requests = new SingleFlight<>();
 	private String email;
 
 	
@@ -36,20 +41,45 @@ public class CrossrefService {
         this.client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_2).build();
     }
 
-	public boolean verifyItem(ReferenceItem item) {
+	/**
+	 * Looks the reference up by DOI, or by title when there is no usable DOI.
+	 *
+	 * @return the best record with its score, or null if nothing was found
+	 */
+	public MatchResult verifyItem(ReferenceItem item) {
+		return verifyItem(item, true);
+	}
+
+	/**
+	 * @param lookUpDoi false to search by title only, e.g. when the DOI was
+	 *                  already resolved elsewhere
+	 * @return the best record with its score, or null if nothing was found
+	 */
+	public MatchResult verifyItem(ReferenceItem item, boolean lookUpDoi) {
 		try {
 			String jsonResponse = null;
 
 			
-			if (item.getDetectedDoi() != null && item.getDetectedDoi().contains("10.")) {
-				jsonResponse = callApi("https://api.crossref.org/works/" + item.getDetectedDoi());
+			String doi = lookUpDoi ? DoiNormalizer.normalize(item.getDetectedDoi()) : null;
+			if (doi != null) {
+				jsonResponse = callApi("https://api.crossref.org/works/" + DoiNormalizer.toUrlPath(doi));
 			}
 
-			
+			// Books print an ISBN rather than a DOI; the filter narrows the search to the book and its chapters
+			if (jsonResponse == null && item.getIsbn() != null) {
+				String url = "https://api.crossref.org/works?filter=isbn:" + item.getIsbn() + "&rows=1";
+				if (!item.isRawFallback())
+					url += "&query.bibliographic=" + URLEncoder.encode(item.getPdfTitle(), StandardCharsets.UTF_8);
+				logger.log("API_REQ", String.format("Crossref ID %d | Querying: ISBN='%s'", item.getId(), item.getIsbn()));
+				String byIsbn = callApi(url);
+				MatchResult result = byIsbn != null ? parseAndScore(byIsbn, item) : null;
+				if (result != null)
+					return result;
+			}
+
+
 			if (jsonResponse == null) {
-				String query = item.getPdfTitle();
-				if (query == null || query.equals("Unknown Title"))
-					query = item.getRawText();
+				String query = item.isRawFallback() ? item.getRawText() : item.getPdfTitle();
 				if (query.length() > 200)
 					query = query.substring(0, 200);
 
@@ -63,18 +93,19 @@ public class CrossrefService {
 			}
 
 			if (jsonResponse != null) {
-				parseAndScore(jsonResponse, item);
-				return true;
+				return parseAndScore(jsonResponse, item);
 			} else {
-				item.markNotFound();
 				logger.log("API_RES", String.format("ID %d | No results returned from Crossref.", item.getId()));
-				return false;
+				return null;
 			}
 
+		} catch (InterruptedException e) {
+			// Verification was cancelled; the aborted request is not a failure
+			Thread.currentThread().interrupt();
+			return null;
 		} catch (Exception e) {
-			item.markNotFound();
 			logger.log("ERROR", "Crossref API Request failed for ID " + item.getId() + ": " + e.getMessage());
-			return false;
+			return null;
 		}
 	}
 
@@ -82,13 +113,15 @@ public class CrossrefService {
 		
 		HttpRequest request = HttpRequest.newBuilder().uri(URI.create(url))
 				.header("User-Agent", "Cerca/1.0 (mailto:" + email + ")").GET().build();
-		HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
-		if (response.statusCode() == 200)
-			return response.body();
-		return null;
+		return requests.run(url, () -> {
+			HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+			if (response.statusCode() == 200)
+				return response.body();
+			return null;
+		});
 	}
 
-	private void parseAndScore(String json, ReferenceItem item) {
+	private MatchResult parseAndScore(String json, ReferenceItem item) {
         JsonObject root = JsonParser.parseString(json).getAsJsonObject();
         JsonObject message;
 
@@ -97,7 +130,7 @@ public class CrossrefService {
             message = root.getAsJsonObject("message");
         } else {
             var items = root.getAsJsonObject("message").getAsJsonArray("items");
-            if (items.size() == 0) { item.markNotFound(); return; }
+            if (items.size() == 0) return null;
             message = items.get(0).getAsJsonObject();
         }
 
@@ -106,7 +139,6 @@ public class CrossrefService {
         if (message.has("title") && message.getAsJsonArray("title").size() > 0) {
             crTitle = message.getAsJsonArray("title").get(0).getAsString();
         }
-        item.crossrefTitleProperty().set(crTitle);
 
         String crAuthors = "";
         if (message.has("author")) {
@@ -121,70 +153,28 @@ public class CrossrefService {
             }
             crAuthors = sb.toString();
         }
-        item.dBAuthorsProperty().set(crAuthors);
-
-        
-
-        boolean isRawFallback = item.getPdfTitle().equals("Unknown Title");
-        String pdfSource = isRawFallback ? item.getRawText() : item.getPdfTitle();
-        String pdfAuthors = item.getAuthors(); // Ensure you added the getter to ReferenceItem!
-
-        
-        int titleScore;
-        if (isRawFallback) {
-            
-            titleScore = FuzzySearch.partialRatio(crTitle.toLowerCase(), pdfSource.toLowerCase());
-        } else {
-                  
-            titleScore = FuzzySearch.ratio(crTitle.toLowerCase(), pdfSource.toLowerCase());
-        }
-
-        score(item, crTitle, crAuthors, pdfAuthors, titleScore);
-    }
-
-	private void score(ReferenceItem item, String crTitle, String crAuthors, String pdfAuthors, int titleScore) {
-		
-        int authorScore = FuzzySearch.tokenSortRatio(crAuthors, pdfAuthors);
 
-        
-        int finalScore;
+        String crDoi = message.has("DOI") ? message.get("DOI").getAsString() : "";
 
-        if (authorScore < 50) {
-            
-            finalScore = Math.min(titleScore, 50); 
-        } else {
-            
-            finalScore = (int) ((titleScore * 0.6) + (authorScore * 0.4));
+        // "issued": {"date-parts": [[2020, 4, 1]]}
+        int year = 0;
+        if (message.has("issued") && message.getAsJsonObject("issued").has("date-parts")) {
+            var parts = message.getAsJsonObject("issued").getAsJsonArray("date-parts");
+            if (parts.size() > 0 && parts.get(0).isJsonArray() && parts.get(0).getAsJsonArray().size() > 0
+                    && !parts.get(0).getAsJsonArray().get(0).isJsonNull()) {
+                year = parts.get(0).getAsJsonArray().get(0).getAsInt();
+            }
         }
 
-        
-        item.matchScoreProperty().set(finalScore);
-        
+        MatchResult result = MatchScorer.score("Crossref", item, crTitle, crAuthors, crDoi, year);
         logger.log("API_RES", String.format("ID %d | Match Found: Score=%d%% | Title: %s", 
-                item.getId(), finalScore, crTitle));
-
-        if (finalScore > 75) { 
-            item.statusProperty().set("✅ PASS");
-            item.statusColorProperty().set(Color.GREEN);
-            item.setVerified(true);
-        } else if (finalScore > 50) {
-            item.statusProperty().set("! CHECK");
-            item.statusColorProperty().set(Color.ORANGE);
-        } else {
-            item.statusProperty().set("❌ FAIL");
-            item.statusColorProperty().set(Color.RED);
-        }
-	}
+                item.getId(), result.getScore(), crTitle));
+        return result;
+    }
 	
 	/** Helper to safely format text for a URL**/
 	private String cleanText(String text) {
-	    if (text == null) return "";
-	    
-	    
-	    String clean = text.replaceAll("[^a-zA-Z0-9\\s]", "");
-	    
-	    
-	    return clean.trim().replace(" ", "+");
+	    return TextNormalizer.toQuery(text).replace(' ', '+');
 	}
 
 	/**
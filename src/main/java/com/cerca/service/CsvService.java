@@ -2,54 +2,126 @@ package com.cerca.service;
 
 import com.cerca.model.ReferenceItem;
 import java.io.BufferedWriter;
+import java.io.Closeable;
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.util.List;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 
 /**
  * Export the data to a CSV file locally stored.
  *
+ * Rows are written to the file as they are produced, in UTF-8, so exports of
+ * many documents use the same memory as exports of one.
+ *
  * @author Lidiany Cerqueira
  */
 public class CsvService {
 
-    public void exportToCsv(List<ReferenceItem> data, File file) throws IOException {
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(file))) {
-            
-            
-            writer.write("ID;Verified;Status;Match Score;PDF Title;PDF Authors;Crossref Title;Crossref Authors;DOI\n");
+    private static final String[] HEADER = { "ID", "Verified", "Status", "Match Score", "PDF Title", "PDF Authors",
+            "Crossref Title", "Crossref Authors", "DOI" };
+
+    private char delimiter = ';';
+
+    /** Sets the field separator, ';' by default. */
+    public void setDelimiter(char delimiter) {
+        if (delimiter == '"' || delimiter == '\n' || delimiter == '\r') {
+            throw new IllegalArgumentException("Invalid CSV delimiter: " + delimiter);
+        }
+        this.delimiter = delimiter;
+    }
+
+    public char getDelimiter() {
+        return delimiter;
+    }
 
-           
+    public void exportToCsv(Iterable<ReferenceItem> data, File file) throws IOException {
+        try (RowWriter writer = open(file)) {
             for (ReferenceItem item : data) {
-                StringBuilder line = new StringBuilder();
-                
-                line.append(escapeCsv(String.valueOf(item.idProperty().get()))).append(";");
-                line.append(item.isVerified()).append(";");
-                line.append(escapeCsv(item.statusProperty().get())).append(";");
-                line.append(item.getMatchScore()).append(";");
-                
-                line.append(escapeCsv(item.pdfTitleProperty().get())).append(";");
-                line.append(escapeCsv(item.authorsProperty().get())).append(";");
-                
-                line.append(escapeCsv(item.crossrefTitleProperty().get())).append(";");
-                line.append(escapeCsv(item.dBAuthorsProperty().get())).append(";");
-                
-                line.append(escapeCsv(item.getDetectedDoi()));
-                
-                writer.write(line.toString());
-                writer.newLine();
+                writer.write(item);
             }
         }
     }
 
-    /** Helper to handle commas and quotes inside the data**/
-    private String escapeCsv(String data) {
-        if (data == null) return "";
-        String escaped = data.replaceAll("\"", "\"\""); // Double up quotes
-        if (escaped.contains(",") || escaped.contains("\"") || escaped.contains("\n")) {
-            return "\"" + escaped + "\""; // Wrap in quotes
+    /**
+     * Opens a CSV file and writes the header. Rows are then added one at a
+     * time, e.g. while going through the results of several documents.
+     */
+    public RowWriter open(File file) throws IOException {
+        return new RowWriter(Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8), delimiter);
+    }
+
+    /** Writes reference rows to an open CSV file. */
+    public static class RowWriter implements Closeable {
+
+        private final Writer out;
+        private final char delimiter;
+
+        RowWriter(Writer out, char delimiter) throws IOException {
+            this.out = out instanceof BufferedWriter ? out : new BufferedWriter(out);
+            this.delimiter = delimiter;
+            for (int i = 0; i < HEADER.length; i++) {
+                if (i > 0) this.out.write(delimiter);
+                writeField(HEADER[i]);
+            }
+            this.out.write('\n');
+        }
+
+        public void write(ReferenceItem item) throws IOException {
+            out.write(String.valueOf(item.idProperty().get()));
+            out.write(delimiter);
+            out.write(String.valueOf(item.isVerified()));
+            out.write(delimiter);
+            writeField(item.statusProperty().get());
+            out.write(delimiter);
+            out.write(String.valueOf(item.getMatchScore()));
+            out.write(delimiter);
+
+            writeField(item.pdfTitleProperty().get());
+            out.write(delimiter);
+            writeField(item.authorsProperty().get());
+            out.write(delimiter);
+
+            writeField(item.crossrefTitleProperty().get());
+            out.write(delimiter);
+            writeField(item.dBAuthorsProperty().get());
+            out.write(delimiter);
+
+            writeField(item.getDetectedDoi());
+            out.write('\n');
+        }
+
+        /** Quotes the field only if it contains the delimiter, a quote or a line break. */
+        private void writeField(String data) throws IOException {
+            if (data == null) return;
+
+            boolean needsQuotes = false;
+            for (int i = 0; i < data.length() && !needsQuotes; i++) {
+                char c = data.charAt(i);
+                needsQuotes = c == delimiter || c == '"' || c == '\n' || c == '\r';
+            }
+            if (!needsQuotes) {
+                out.write(data);
+                return;
+            }
+
+            out.write('"');
+            int start = 0;
+            for (int i = 0; i < data.length(); i++) {
+                if (data.charAt(i) == '"') {
+                    out.write(data, start, i + 1 - start); // Double up quotes
+                    out.write('"');
+                    start = i + 1;
+                }
+            }
+            out.write(data, start, data.length() - start);
+            out.write('"');
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
         }
-        return escaped;
     }
-}
\ No newline at end of file
+}
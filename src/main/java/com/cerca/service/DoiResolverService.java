@@ -0,0 +1,136 @@
+package com.cerca.service;
+
+import com.cerca.model.MatchResult;
+import com.cerca.model.ReferenceItem;
+import com.cerca.utils.DoiNormalizer;
+import com.cerca.utils.MatchScorer;
+import com.cerca.utils.SingleFlight;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+/**
+ * Resolves a reference's DOI through doi.org content negotiation.
+ *
+ * Asking doi.org for CSL JSON returns the metadata of the work from whichever
+ * registration agency issued the DOI (Crossref, DataCite for Zenodo and
+ * arXiv, mEDRA...), in one request. References whose DOI is not a Crossref
+ * DOI are therefore verified without falling back to a title search.
+ *
+ * @author Lidiany Cerqueira
+ */
+public class DoiResolverService {
+
+    public static final String SOURCE = "doi.org";
+
+    private static final String CSL_JSON = "application/vnd.citationstyles.csl+json";
+
+    private final HttpClient client;
+    private final LogService logger;
+
+    /** Identical requests from concurrent verifications share one response. */
+    private final SingleFlight<String, HttpResponse<String>> requests = new SingleFlight<>();
+
+    public DoiResolverService(LogService logger) {
+        this.logger = logger;
+        // doi.org redirects to the registration agency's own content service
+        this.client = HttpClient.newBuilder()
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+    }
+
+    /**
+     * @return the record the reference's DOI resolves to, scored against the
+     *         reference; null if it has no DOI or the DOI does not resolve
+     */
+    public MatchResult verify(ReferenceItem item) {
+        String doi = DoiNormalizer.normalize(item.getDetectedDoi());
+        if (doi == null) return null;
+
+        String url = "https://doi.org/" + DoiNormalizer.toUrlPath(doi);
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(url))
+                .header("Accept", CSL_JSON)
+                .timeout(Duration.ofSeconds(15))
+                .GET()
+                .build();
+
+        try {
+            logger.log("API_REQ", String.format("doi.org ID %d | Resolving DOI '%s'", item.getId(), doi));
+            HttpResponse<String> response = requests.run(url,
+                    () -> client.send(request, HttpResponse.BodyHandlers.ofString()));
+
+            if (response.statusCode() == 200) {
+                return parseAndScore(response.body(), doi, item);
+            } else if (response.statusCode() == 404) {
+                logger.log("API_RES", String.format("ID %d | DOI %s is not registered.", item.getId(), doi));
+            } else {
+                logger.log("ERROR", "doi.org Error: " + response.statusCode());
+            }
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            logger.log("ERROR", "doi.org Connection Error: " + e.getMessage());
+        }
+        return null;
+    }
+
+    private MatchResult parseAndScore(String json, String doi, ReferenceItem item) {
+        try {
+            JsonObject csl = JsonParser.parseString(json).getAsJsonObject();
+
+            String title = firstString(csl.get("title"));
+            if (title == null || title.isBlank()) return null;
+
+            StringBuilder sb = new StringBuilder();
+            if (csl.has("author") && csl.get("author").isJsonArray()) {
+                for (JsonElement a : csl.getAsJsonArray("author")) {
+                    JsonObject author = a.getAsJsonObject();
+                    String name = author.has("literal") ? author.get("literal").getAsString()
+                            : ((author.has("given") ? author.get("given").getAsString() : "") + " "
+                                    + (author.has("family") ? author.get("family").getAsString() : "")).trim();
+                    if (name.isEmpty()) continue;
+                    if (sb.length() > 0) sb.append("; ");
+                    sb.append(name);
+                }
+            }
+
+            // "issued": {"date-parts": [[2015, 5, 27]]}
+            int year = 0;
+            if (csl.has("issued") && csl.getAsJsonObject("issued").has("date-parts")) {
+                JsonArray parts = csl.getAsJsonObject("issued").getAsJsonArray("date-parts");
+                if (parts.size() > 0 && parts.get(0).getAsJsonArray().size() > 0
+                        && !parts.get(0).getAsJsonArray().get(0).isJsonNull()) {
+                    year = parts.get(0).getAsJsonArray().get(0).getAsInt();
+                }
+            }
+
+            MatchResult result = MatchScorer.score(SOURCE, item, title, sb.toString(), doi, year);
+            logger.log("API_RES", String.format("[DOI.ORG] ID %d resolved: '%s' (Score: %d)", item.getId(), title,
+                    result.getScore()));
+            return result;
+        } catch (RuntimeException e) {
+            logger.log("ERROR", "doi.org returned unreadable metadata for " + doi + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /** CSL titles are a string, but some agencies send an array. */
+    private static String firstString(JsonElement value) {
+        if (value == null || value.isJsonNull()) return null;
+        if (value.isJsonArray()) {
+            JsonArray array = value.getAsJsonArray();
+            return array.size() > 0 ? array.get(0).getAsString() : null;
+        }
+        return value.getAsString();
+    }
+}
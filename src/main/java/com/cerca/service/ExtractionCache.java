@@ -0,0 +1,184 @@
+package com.cerca.service;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.cerca.model.ReferenceItem;
+import com.cerca.utils.IdentifierScanner;
+import com.google.gson.Gson;
+
+/**
+ * Remembers the references CERMINE extracted from each PDF, keyed by a hash
+ * of the file's bytes, so dropping the same file again shows its references
+ * without running the extraction.
+ *
+ * Entries are JSON files in {@code cerca_cache/extraction}. When the
+ * directory grows past its size limit, the least recently used entries are
+ * deleted; reading an entry marks it as used.
+ */
+public class ExtractionCache {
+
+    private static final Path CACHE_DIR = Paths.get("cerca_cache", "extraction");
+
+    /** Bumped when the extraction changes in a way that makes old entries wrong. */
+    private static final int FORMAT_VERSION = 1;
+
+    /** Bytes hashed per mapped region, so large files are not mapped at once. */
+    private static final long HASH_CHUNK = 64L * 1024 * 1024;
+
+    private final LogService logger;
+    private final Gson gson = new Gson();
+    private final long maxBytes;
+
+    /** What is stored for one reference: the extracted fields behind a {@link ReferenceItem}. */
+    private static class Entry {
+        int id;
+        String authors;
+        String title;
+        String raw;
+        String doi;
+    }
+
+    private static class CachedDocument {
+        int version;
+        String file;
+        List<Entry> references;
+    }
+
+    /**
+     * @param maxMegabytes size limit of the cache directory; 0 disables the
+     *                     cache
+     */
+    public ExtractionCache(LogService logger, long maxMegabytes) {
+        this.logger = logger;
+        this.maxBytes = Math.max(0, maxMegabytes) * 1024 * 1024;
+    }
+
+    public boolean isEnabled() {
+        return maxBytes > 0;
+    }
+
+    /**
+     * @param variant the extraction settings that change the result, so a
+     *                file extracted with other settings is not served from
+     *                the cache
+     * @return the SHA-256 of the file's bytes plus the variant, read through
+     *         memory-mapped regions
+     */
+    public String keyOf(File pdf, String variant) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+
+        try (FileChannel channel = FileChannel.open(pdf.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            for (long position = 0; position < size; position += HASH_CHUNK) {
+                MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_ONLY, position,
+                        Math.min(HASH_CHUNK, size - position));
+                digest.update(region);
+            }
+        }
+
+        StringBuilder sb = new StringBuilder(80);
+        for (byte b : digest.digest()) {
+            sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return sb.append('-').append(variant).append("-v").append(FORMAT_VERSION).toString();
+    }
+
+    /** @return the cached references, or null if the file was not seen before */
+    public List<ReferenceItem> get(String key) {
+        Path path = CACHE_DIR.resolve(key + ".json");
+        if (!Files.exists(path)) return null;
+
+        try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            CachedDocument cached = gson.fromJson(reader, CachedDocument.class);
+            if (cached == null || cached.version != FORMAT_VERSION || cached.references == null) return null;
+
+            // Mark as recently used for eviction
+            Files.setLastModifiedTime(path, FileTime.fromMillis(System.currentTimeMillis()));
+
+            List<ReferenceItem> items = new ArrayList<>(cached.references.size());
+            for (Entry e : cached.references) {
+                ReferenceItem item = new ReferenceItem(e.id, "WAITING", e.authors, e.title, e.raw, e.doi);
+                // Entries written before the scanner existed only hold CERMINE's DOI
+                IdentifierScanner.apply(item);
+                items.add(item);
+            }
+            return items;
+        } catch (Exception e) {
+            logger.log("WARN", "Ignoring unreadable extraction cache entry: " + e.getMessage());
+            return null;
+        }
+    }
+
+    public void put(String key, String fileName, List<ReferenceItem> items) {
+        CachedDocument cached = new CachedDocument();
+        cached.version = FORMAT_VERSION;
+        cached.file = fileName;
+        cached.references = new ArrayList<>(items.size());
+        for (ReferenceItem item : items) {
+            Entry e = new Entry();
+            e.id = item.getId();
+            e.authors = item.getAuthors();
+            e.title = item.getPdfTitle();
+            e.raw = item.getRawText();
+            e.doi = item.getDetectedDoi();
+            cached.references.add(e);
+        }
+
+        try {
+            Files.createDirectories(CACHE_DIR);
+            Path tmp = Files.createTempFile(CACHE_DIR, key, ".tmp");
+            try (Writer writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                gson.toJson(cached, writer);
+            }
+            Files.move(tmp, CACHE_DIR.resolve(key + ".json"), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+            evict();
+        } catch (IOException e) {
+            logger.log("WARN", "Could not cache the extraction of " + fileName + ": " + e.getMessage());
+        }
+    }
+
+    /** Deletes the least recently used entries until the cache fits its size limit. */
+    private void evict() throws IOException {
+        List<Path> entries;
+        try (Stream<Path> files = Files.list(CACHE_DIR)) {
+            entries = files.filter(p -> p.getFileName().toString().endsWith(".json")).collect(Collectors.toList());
+        }
+
+        long total = 0;
+        for (Path p : entries) total += Files.size(p);
+        if (total <= maxBytes) return;
+
+        entries.sort(Comparator.comparing(p -> p.toFile().lastModified()));
+        for (Path p : entries) {
+            if (total <= maxBytes) break;
+            total -= Files.size(p);
+            Files.deleteIfExists(p);
+            logger.log("INFO", "Evicted extraction cache entry " + p.getFileName());
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.cerca.service;
+
+import com.cerca.model.MatchResult;
+import com.cerca.model.ReferenceItem;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Export the data as JSON Lines: one JSON object per reference and per line,
+ * for loading into analytics tools.
+ *
+ * Unlike the CSV, each record keeps the provider that supplied the match, the
+ * title and author scores behind the final score, the database DOI and the
+ * time spent on each provider. Records are streamed with Jackson's
+ * generator, so exports of any size use constant memory. A file name ending
+ * in ".gz" is gzip-compressed.
+ *
+ * @author Lidiany Cerqueira
+ */
+public class JsonLinesService {
+
+    private static final JsonFactory FACTORY = new JsonFactory();
+
+    public void exportToJsonLines(String document, Iterable<ReferenceItem> data, File file) throws IOException {
+        try (RecordWriter writer = open(file)) {
+            for (ReferenceItem item : data) {
+                writer.write(document, item);
+            }
+        }
+    }
+
+    /** Opens the file; records are then added one at a time, e.g. for several documents. */
+    public RecordWriter open(File file) throws IOException {
+        OutputStream out = new BufferedOutputStream(Files.newOutputStream(file.toPath()), 64 * 1024);
+        if (file.getName().endsWith(".gz")) {
+            out = new GZIPOutputStream(out, 64 * 1024);
+        }
+        return new RecordWriter(out);
+    }
+
+    /** Writes reference records to an open JSON Lines file. */
+    public static class RecordWriter implements Closeable {
+
+        private final JsonGenerator generator;
+        private boolean empty = true;
+
+        RecordWriter(OutputStream out) throws IOException {
+            this.generator = FACTORY.createGenerator(out, JsonEncoding.UTF8);
+            // One record per line instead of Jackson's default space separator
+            this.generator.setRootValueSeparator(new SerializedString("\n"));
+        }
+
+        public void write(String document, ReferenceItem item) throws IOException {
+            JsonGenerator g = generator;
+            empty = false;
+            g.writeStartObject();
+            g.writeStringField("document", document);
+            g.writeNumberField("id", item.getId());
+            g.writeBooleanField("verified", item.isVerified());
+            g.writeStringField("status", item.getStatus());
+            g.writeNumberField("score", item.getMatchScore());
+
+            MatchResult match = item.getMatch();
+            if (match != null) {
+                g.writeStringField("provider", match.getSource());
+                g.writeNumberField("titleScore", match.getTitleScore());
+                g.writeNumberField("authorScore", match.getAuthorScore());
+            } else {
+                g.writeNullField("provider");
+            }
+
+            g.writeObjectFieldStart("pdf");
+            g.writeStringField("title", item.getPdfTitle());
+            g.writeStringField("authors", item.getAuthors());
+            g.writeStringField("doi", item.getDetectedDoi());
+            g.writeStringField("arxiv", item.getArxivId());
+            g.writeStringField("isbn", item.getIsbn());
+            g.writeStringField("url", item.getUrl());
+            g.writeStringField("raw", item.getRawText());
+            g.writeEndObject();
+
+            g.writeObjectFieldStart("db");
+            g.writeStringField("title", item.getDbTitle());
+            g.writeStringField("authors", item.getDbAuthors());
+            g.writeStringField("doi", match != null ? match.getDbDoi() : null);
+            g.writeEndObject();
+
+            g.writeObjectFieldStart("latencyMs");
+            for (Map.Entry<String, Long> stage : item.getStageTimings().entrySet()) {
+                g.writeNumberField(stage.getKey(), stage.getValue());
+            }
+            g.writeEndObject();
+
+            g.writeEndObject();
+        }
+
+        @Override
+        public void close() throws IOException {
+            // Terminates the last line, as JSON Lines expects
+            if (!empty) {
+                generator.writeRaw('\n');
+            }
+            generator.close();
+        }
+    }
+}
@@ -0,0 +1,344 @@
+package com.cerca.service;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import com.cerca.model.MatchResult;
+import com.cerca.model.ReferenceItem;
+import com.cerca.utils.DoiNormalizer;
+import com.cerca.utils.MatchScorer;
+import com.cerca.utils.TextNormalizer;
+import com.cerca.utils.TrigramIndex;
+
+/**
+ * Remembers the works that the online databases confirmed, so references
+ * cited again in later manuscripts are verified locally, without a request.
+ *
+ * Works are found by exact DOI or by a hash of the normalized title; both are
+ * in-memory hash lookups. Titles that differ slightly, e.g. in punctuation
+ * or a typo, are found through a {@link TrigramIndex}. The index is kept on
+ * disk as an append-only binary file ({@code cerca_cache/works.bin}): each
+ * confirmed work is appended as it is found, and the whole file is read back
+ * into one buffer at startup. When a work is updated the older record stays
+ * in the file until the file is compacted on the next load. The file is not
+ * memory-mapped, as Windows refuses to replace a mapped file and compaction
+ * replaces it.
+ */
+public class LocalWorksIndex {
+
+    public static final String SOURCE = "Local index";
+
+    private static final Path DEFAULT_FILE = Paths.get("cerca_cache", "works.bin");
+    private static final int MAGIC = 0x43525749; // "CRWI"
+    private static final int VERSION = 1;
+
+    /** Fuzzy title candidates scored per lookup, and the trigram similarity they need. */
+    private static final int CANDIDATES = 5;
+    private static final double MIN_SIMILARITY = 0.5;
+
+    /** A work as stored in the index. */
+    public static class Work {
+        final String doi;
+        final String title;
+        final String authors;
+        final int year;
+
+        Work(String doi, String title, String authors, int year) {
+            this.doi = doi;
+            this.title = title;
+            this.authors = authors;
+            this.year = year;
+        }
+
+        public String getDoi() {
+            return doi;
+        }
+
+        public String getTitle() {
+            return title;
+        }
+
+        public String getAuthors() {
+            return authors;
+        }
+
+        public int getYear() {
+            return year;
+        }
+    }
+
+    private final LogService logger;
+    private final Path file;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Work> byDoi = new HashMap<>();
+    private final Map<Long, String> doiByTitle = new HashMap<>();
+    private final List<String> doiById = new ArrayList<>();
+    private final TrigramIndex titles = new TrigramIndex();
+    private DataOutputStream appender;
+
+    public LocalWorksIndex(LogService logger) {
+        this(logger, DEFAULT_FILE);
+    }
+
+    public LocalWorksIndex(LogService logger, Path file) {
+        this.logger = logger;
+        this.file = file;
+    }
+
+    /** Reads the index file; rewrites it without superseded records if it has many. */
+    public void load() {
+        if (!Files.exists(file)) return;
+
+        long start = System.currentTimeMillis();
+        int records = 0;
+        lock.writeLock().lock();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer in = ByteBuffer.allocate((int) channel.size());
+            while (in.hasRemaining() && channel.read(in) >= 0) {
+                // Read the whole file
+            }
+            in.flip();
+            if (in.remaining() < 8 || in.getInt() != MAGIC || in.getInt() != VERSION) {
+                log("WARN", "Ignoring local works index with an unknown format: " + file);
+                return;
+            }
+
+            while (in.hasRemaining()) {
+                int mark = in.position();
+                try {
+                    put(new Work(readString(in), readString(in), readString(in), in.getInt()));
+                    records++;
+                } catch (RuntimeException e) {
+                    // A record cut short when Cerca was stopped mid-write; new works are appended in its place
+                    log("WARN", "Local works index ends with an incomplete record at byte " + mark + ".");
+                    channel.truncate(mark);
+                    break;
+                }
+            }
+        } catch (IOException e) {
+            log("ERROR", "Could not read the local works index: " + e.getMessage());
+            return;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        log("SYSTEM", String.format("Local works index: %d works loaded in %d ms.", byDoi.size(),
+                System.currentTimeMillis() - start));
+        if (records > 2 * byDoi.size() + 100) {
+            compact();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return byDoi.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Work findByDoi(String doi) {
+        String key = DoiNormalizer.normalize(doi);
+        if (key == null) return null;
+
+        lock.readLock().lock();
+        try {
+            return byDoi.get(key);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Work findByTitle(String title) {
+        long hash = titleHash(title);
+        if (hash == 0) return null;
+
+        lock.readLock().lock();
+        try {
+            String doi = doiByTitle.get(hash);
+            return doi == null ? null : byDoi.get(doi);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** @return the works whose titles look like this one, most similar first */
+    public List<Work> findSimilar(String title) {
+        lock.readLock().lock();
+        try {
+            List<Work> similar = new ArrayList<>(CANDIDATES);
+            for (int id : titles.candidates(title, CANDIDATES, MIN_SIMILARITY)) {
+                similar.add(byDoi.get(doiById.get(id)));
+            }
+            return similar;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Looks the reference up by its DOI, then by its exact title, then by
+     * similar titles, and scores the works found like a provider would.
+     *
+     * @return the best scored work, or null if the index does not know it
+     */
+    public MatchResult match(ReferenceItem item) {
+        Work work = findByDoi(item.getDetectedDoi());
+        if (work == null && !item.isRawFallback()) {
+            work = findByTitle(item.getPdfTitle());
+        }
+        if (work != null) {
+            return MatchScorer.score(SOURCE, item, work.title, work.authors, work.doi, work.year);
+        }
+        if (item.isRawFallback()) return null;
+
+        MatchResult best = null;
+        for (Work candidate : findSimilar(item.getPdfTitle())) {
+            MatchResult result = MatchScorer.score(SOURCE, item, candidate.title, candidate.authors, candidate.doi,
+                    candidate.year);
+            if (best == null || result.getScore() > best.getScore()) best = result;
+        }
+        return best;
+    }
+
+    /** Adds a work confirmed by a provider; records without a real DOI are skipped. */
+    public void add(MatchResult result) {
+        String doi = DoiNormalizer.normalize(result.getDbDoi());
+        if (doi == null || result.getDbTitle() == null || result.getDbTitle().isEmpty()) return;
+
+        Work work = new Work(doi, result.getDbTitle(), result.getDbAuthors(), result.getYear());
+        lock.writeLock().lock();
+        try {
+            Work known = byDoi.get(doi);
+            if (known != null && known.title.equals(work.title) && Objects.equals(known.authors, work.authors)
+                    && known.year == work.year) {
+                return;
+            }
+            put(work);
+            append(work);
+        } catch (IOException e) {
+            log("ERROR", "Could not update the local works index: " + e.getMessage());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void close() {
+        lock.writeLock().lock();
+        try {
+            if (appender != null) {
+                appender.close();
+                appender = null;
+            }
+        } catch (IOException e) {
+            log("ERROR", "Could not close the local works index: " + e.getMessage());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Called with the write lock held. */
+    private void put(Work work) {
+        // An updated work keeps the trigrams of its first title; candidates are scored on the current one
+        if (byDoi.put(work.doi, work) == null) {
+            titles.add(doiById.size(), work.title);
+            doiById.add(work.doi);
+        }
+        long hash = titleHash(work.title);
+        if (hash != 0) doiByTitle.put(hash, work.doi);
+    }
+
+    /** Called with the write lock held. */
+    private void append(Work work) throws IOException {
+        if (appender == null) {
+            boolean fresh = !Files.exists(file) || Files.size(file) == 0;
+            if (file.getParent() != null) Files.createDirectories(file.getParent());
+            appender = new DataOutputStream(new BufferedOutputStream(
+                    Files.newOutputStream(file, StandardOpenOption.CREATE, StandardOpenOption.APPEND)));
+            if (fresh) {
+                appender.writeInt(MAGIC);
+                appender.writeInt(VERSION);
+            }
+        }
+        writeWork(appender, work);
+        appender.flush();
+    }
+
+    /** Rewrites the file with one record per work. */
+    private void compact() {
+        lock.writeLock().lock();
+        try {
+            close();
+            Path tmp = Files.createTempFile(file.toAbsolutePath().getParent(), "works", ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                for (Work work : new ArrayList<>(byDoi.values())) {
+                    writeWork(out, work);
+                }
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log("SYSTEM", "Local works index compacted to " + byDoi.size() + " works.");
+        } catch (IOException e) {
+            log("ERROR", "Could not compact the local works index: " + e.getMessage());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static void writeWork(DataOutputStream out, Work work) throws IOException {
+        writeString(out, work.doi);
+        writeString(out, work.title);
+        writeString(out, work.authors == null ? "" : work.authors);
+        out.writeInt(work.year);
+    }
+
+    /** 64-bit FNV-1a over the title reduced to letters and digits; 0 for an empty title. */
+    static long titleHash(String title) {
+        String query = TextNormalizer.toQuery(title);
+        if (query.isEmpty()) return 0;
+
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < query.length(); i++) {
+            hash ^= query.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash == 0 ? 1 : hash;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0 || length > in.remaining()) throw new IllegalStateException("Bad string length");
+
+        ByteBuffer slice = in.slice();
+        slice.limit(length);
+        in.position(in.position() + length);
+        return StandardCharsets.UTF_8.decode(slice).toString();
+    }
+
+    private void log(String category, String message) {
+        if (logger != null) logger.log(category, message);
+    }
+}
@@ -0,0 +1,772 @@
+package com.cerca.service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import com.cerca.model.MatchResult;
+import com.cerca.model.ReferenceItem;
+import com.cerca.service.LocalWorksIndex.Work;
+import com.cerca.utils.DoiNormalizer;
+import com.cerca.utils.MatchScorer;
+import com.cerca.utils.TrigramIndex;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+/**
+ * Verifies references against a bibliographic metadata dump imported from
+ * disk, for machines without network access.
+ *
+ * {@link #importDump} reads Crossref or OpenAlex snapshot files (JSON Lines,
+ * one work per line, or Crossref's {@code {"items": [...]}} files, optionally
+ * gzip-compressed) with Jackson's streaming parser, so dumps of any size are
+ * imported in constant memory. Only the DOI, title, authors and year of each
+ * work are kept.
+ *
+ * The catalog lives in {@code cerca_cache/catalog}: {@code works.dat} holds
+ * the records, and {@code doi.idx} and {@code title.idx} hold
+ * (key hash, record offset) pairs sorted by key. A lookup is a binary search
+ * with positional reads, so the catalog is never loaded into memory and
+ * lookups take the same few microseconds however large it is.
+ *
+ * Titles without an exact match are looked up in {@code titles.N.tri}, a
+ * {@link TrigramIndex} mapped from disk whose ids are record numbers;
+ * {@code offsets.idx} maps record numbers to record offsets. The trigram
+ * index is built in memory during an import, which bounds the size of the
+ * dumps it suits to subsets of a few million works.
+ *
+ * Works whose DOI is already in the catalog are skipped, so importing the
+ * same dump again adds nothing. Works without a DOI, and works repeated
+ * within one dump, are imported each time they appear.
+ */
+public class OfflineCatalogService {
+
+    public static final String SOURCE = "Offline catalog";
+
+    private static final Path CATALOG_DIR = Paths.get("cerca_cache", "catalog");
+    private static final int MAGIC = 0x43524341; // "CRCA"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 8;
+    private static final int PAIR_BYTES = 16;
+
+    /** Fuzzy title candidates scored per lookup, and the trigram similarity they need. */
+    private static final int CANDIDATES = 5;
+    private static final double MIN_SIMILARITY = 0.5;
+
+    private static final JsonFactory FACTORY = new JsonFactory();
+
+    private final LogService logger;
+    private final Path dir;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private FileChannel works;
+    private FileChannel doiIndex;
+    private FileChannel titleIndex;
+    private FileChannel offsets;
+    private TrigramIndex titleTrigrams;
+
+    public OfflineCatalogService(LogService logger) {
+        this(logger, CATALOG_DIR);
+    }
+
+    public OfflineCatalogService(LogService logger, Path dir) {
+        this.logger = logger;
+        this.dir = dir;
+    }
+
+    /** Opens the catalog imported earlier, if there is one. */
+    public void open() {
+        lock.writeLock().lock();
+        try {
+            closeChannels();
+            Path worksFile = dir.resolve("works.dat");
+            for (String name : new String[] { "doi.idx", "title.idx", "offsets.idx" }) {
+                if (!Files.exists(dir.resolve(name))) return;
+            }
+            int generation = trigramGeneration();
+            if (!Files.exists(worksFile) || generation < 0) return;
+
+            works = FileChannel.open(worksFile, StandardOpenOption.READ);
+            doiIndex = FileChannel.open(dir.resolve("doi.idx"), StandardOpenOption.READ);
+            titleIndex = FileChannel.open(dir.resolve("title.idx"), StandardOpenOption.READ);
+            offsets = FileChannel.open(dir.resolve("offsets.idx"), StandardOpenOption.READ);
+            titleTrigrams = TrigramIndex.map(trigramFile(generation));
+            deleteOldTrigrams(generation);
+            log("SYSTEM", "Offline catalog: " + titleIndex.size() / PAIR_BYTES + " works.");
+        } catch (IOException e) {
+            log("ERROR", "Could not open the offline catalog: " + e.getMessage());
+            closeChannels();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isAvailable() {
+        lock.readLock().lock();
+        try {
+            return works != null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Looks the reference up by its DOI, then by its exact normalized title,
+     * then by similar titles, and scores the works found like a provider
+     * would.
+     *
+     * @return the best scored work, or null if the catalog has none
+     */
+    public MatchResult verify(ReferenceItem item) {
+        lock.readLock().lock();
+        try {
+            if (works == null) return null;
+
+            List<Work> candidates = new ArrayList<>();
+            String doi = DoiNormalizer.normalize(item.getDetectedDoi());
+            if (doi != null) {
+                for (long offset : find(doiIndex, doiKey(doi))) {
+                    Work work = readWork(offset);
+                    if (work.doi.equals(doi)) candidates.add(work);
+                }
+            }
+            if (candidates.isEmpty() && !item.isRawFallback()) {
+                for (long offset : find(titleIndex, LocalWorksIndex.titleHash(item.getPdfTitle()))) {
+                    candidates.add(readWork(offset));
+                }
+            }
+            if (candidates.isEmpty() && !item.isRawFallback()) {
+                ByteBuffer offset = ByteBuffer.allocate(8);
+                for (int id : titleTrigrams.candidates(item.getPdfTitle(), CANDIDATES, MIN_SIMILARITY)) {
+                    offset.clear();
+                    readFully(offsets, offset, id * 8L);
+                    candidates.add(readWork(offset.getLong(0)));
+                }
+            }
+
+            MatchResult best = null;
+            for (Work work : candidates) {
+                MatchResult result = MatchScorer.score(SOURCE, item, work.title, work.authors, work.doi, work.year);
+                if (best == null || result.getScore() > best.getScore()) best = result;
+            }
+            return best;
+        } catch (IOException e) {
+            log("ERROR", "Offline catalog lookup failed: " + e.getMessage());
+            return null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Adds the works of a dump to the catalog and rebuilds its indexes.
+     * Verification can go on while this runs; the new works are found once it
+     * returns.
+     *
+     * @param progress called with the number of works imported so far
+     * @return the number of works imported
+     */
+    public long importDump(File dump, LongConsumer progress) throws IOException {
+        long start = System.currentTimeMillis();
+        Files.createDirectories(dir);
+        Path worksFile = dir.resolve("works.dat");
+        dropUnindexedTail(worksFile);
+        boolean fresh = !Files.exists(worksFile) || Files.size(worksFile) == 0;
+        long[] known = indexedDoiKeys();
+
+        long[] count = { 0 };
+        long[] skipped = { 0 };
+        IOException failure = null;
+        try (InputStream in = openDump(dump);
+                JsonParser parser = FACTORY.createParser(in);
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                        Files.newOutputStream(worksFile, StandardOpenOption.CREATE, StandardOpenOption.APPEND),
+                        64 * 1024))) {
+            if (fresh) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+            }
+
+            Consumer<Work> sink = work -> {
+                if (!work.doi.isEmpty() && Arrays.binarySearch(known, doiKey(work.doi)) >= 0) {
+                    skipped[0]++;
+                    return;
+                }
+                try {
+                    writeWork(out, work);
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+                if (++count[0] % 10_000 == 0) progress.accept(count[0]);
+            };
+
+            JsonToken token;
+            while ((token = parser.nextToken()) != null) {
+                if (token == JsonToken.START_OBJECT) {
+                    parseWork(parser, sink);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        } catch (IOException e) {
+            // Keep what was imported before the damaged part
+            failure = e;
+        } catch (IllegalStateException e) {
+            failure = e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException(e);
+        }
+
+        progress.accept(count[0]);
+        rebuildIndexes();
+        log("SYSTEM", String.format("Imported %d works from %s in %d ms (%d already in the catalog).", count[0],
+                dump.getName(), System.currentTimeMillis() - start, skipped[0]));
+        if (failure != null) {
+            throw new IOException("Import stopped after " + count[0] + " works: " + failure.getMessage(), failure);
+        }
+        return count[0];
+    }
+
+    public void close() {
+        lock.writeLock().lock();
+        try {
+            closeChannels();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static InputStream openDump(File dump) throws IOException {
+        InputStream in = new BufferedInputStream(Files.newInputStream(dump.toPath()), 64 * 1024);
+        return dump.getName().endsWith(".gz") ? new GZIPInputStream(in, 64 * 1024) : in;
+    }
+
+    // --- Reading the dump ---
+
+    /**
+     * Reads one JSON object, positioned on its START_OBJECT, and passes on the
+     * work it describes. Understands Crossref ("title" array, "author" with
+     * "given"/"family", "issued" date parts) and OpenAlex ("display_name",
+     * "authorships", "publication_year") records, and descends into the
+     * "items" and "message" wrappers of Crossref files.
+     */
+    private static void parseWork(JsonParser p, Consumer<Work> sink) throws IOException {
+        String doi = null;
+        String title = null;
+        String authors = null;
+        int year = 0;
+
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String field = p.getCurrentName();
+            JsonToken value = p.nextToken();
+            switch (field) {
+                case "DOI":
+                case "doi":
+                    if (value == JsonToken.VALUE_STRING) doi = p.getText();
+                    break;
+                case "title":
+                    title = firstString(p, value);
+                    break;
+                case "display_name":
+                    if (title == null) title = firstString(p, value);
+                    else p.skipChildren();
+                    break;
+                case "author":
+                    authors = readCrossrefAuthors(p, value);
+                    break;
+                case "authorships":
+                    authors = readOpenAlexAuthors(p, value);
+                    break;
+                case "publication_year":
+                    if (value == JsonToken.VALUE_NUMBER_INT) year = p.getIntValue();
+                    break;
+                case "issued":
+                case "published":
+                    int issued = readDatePartsYear(p, value);
+                    if (year == 0) year = issued;
+                    break;
+                case "items":
+                    if (value == JsonToken.START_ARRAY) {
+                        while (p.nextToken() != JsonToken.END_ARRAY) {
+                            if (p.currentToken() == JsonToken.START_OBJECT) parseWork(p, sink);
+                            else p.skipChildren();
+                        }
+                    } else {
+                        p.skipChildren();
+                    }
+                    break;
+                case "message":
+                    if (value == JsonToken.START_OBJECT) parseWork(p, sink);
+                    else p.skipChildren();
+                    break;
+                default:
+                    p.skipChildren();
+            }
+        }
+
+        String key = DoiNormalizer.normalize(doi);
+        if (title != null && !title.isBlank()) {
+            sink.accept(new Work(key == null ? "" : key, title, authors == null ? "" : authors, year));
+        }
+    }
+
+    /** A string, or the first string of an array of them. */
+    private static String firstString(JsonParser p, JsonToken value) throws IOException {
+        if (value == JsonToken.VALUE_STRING) return p.getText();
+        if (value != JsonToken.START_ARRAY) {
+            p.skipChildren();
+            return null;
+        }
+
+        String first = null;
+        while (p.nextToken() != JsonToken.END_ARRAY) {
+            if (first == null && p.currentToken() == JsonToken.VALUE_STRING) first = p.getText();
+            else p.skipChildren();
+        }
+        return first;
+    }
+
+    /** "Given Family" names joined with "; ", as {@link CrossrefService} reports them. */
+    private static String readCrossrefAuthors(JsonParser p, JsonToken value) throws IOException {
+        if (value != JsonToken.START_ARRAY) {
+            p.skipChildren();
+            return null;
+        }
+
+        StringBuilder sb = new StringBuilder();
+        while (p.nextToken() != JsonToken.END_ARRAY) {
+            if (p.currentToken() != JsonToken.START_OBJECT) {
+                p.skipChildren();
+                continue;
+            }
+            String given = "";
+            String family = "";
+            String name = "";
+            while (p.nextToken() == JsonToken.FIELD_NAME) {
+                String field = p.getCurrentName();
+                JsonToken v = p.nextToken();
+                if (v != JsonToken.VALUE_STRING) {
+                    p.skipChildren();
+                } else if ("given".equals(field)) {
+                    given = p.getText();
+                } else if ("family".equals(field)) {
+                    family = p.getText();
+                } else if ("name".equals(field)) {
+                    name = p.getText();
+                }
+            }
+            String author = (given + " " + family).trim();
+            if (author.isEmpty()) author = name;
+            if (author.isEmpty()) continue;
+            if (sb.length() > 0) sb.append("; ");
+            sb.append(author);
+        }
+        return sb.toString();
+    }
+
+    /** The "display_name" of each authorship's author, joined with "; ". */
+    private static String readOpenAlexAuthors(JsonParser p, JsonToken value) throws IOException {
+        if (value != JsonToken.START_ARRAY) {
+            p.skipChildren();
+            return null;
+        }
+
+        StringBuilder sb = new StringBuilder();
+        while (p.nextToken() != JsonToken.END_ARRAY) {
+            if (p.currentToken() != JsonToken.START_OBJECT) {
+                p.skipChildren();
+                continue;
+            }
+            while (p.nextToken() == JsonToken.FIELD_NAME) {
+                String field = p.getCurrentName();
+                JsonToken v = p.nextToken();
+                if (!"author".equals(field) || v != JsonToken.START_OBJECT) {
+                    p.skipChildren();
+                    continue;
+                }
+                while (p.nextToken() == JsonToken.FIELD_NAME) {
+                    String authorField = p.getCurrentName();
+                    JsonToken av = p.nextToken();
+                    if ("display_name".equals(authorField) && av == JsonToken.VALUE_STRING) {
+                        if (sb.length() > 0) sb.append("; ");
+                        sb.append(p.getText());
+                    } else {
+                        p.skipChildren();
+                    }
+                }
+            }
+        }
+        return sb.toString();
+    }
+
+    /** The year of a Crossref date, {"date-parts": [[2020, 5, 1]]}; 0 if missing. */
+    private static int readDatePartsYear(JsonParser p, JsonToken value) throws IOException {
+        if (value != JsonToken.START_OBJECT) {
+            p.skipChildren();
+            return 0;
+        }
+
+        int year = 0;
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String field = p.getCurrentName();
+            JsonToken v = p.nextToken();
+            if (!"date-parts".equals(field) || v != JsonToken.START_ARRAY) {
+                p.skipChildren();
+                continue;
+            }
+            while (p.nextToken() != JsonToken.END_ARRAY) {
+                if (p.currentToken() != JsonToken.START_ARRAY) {
+                    p.skipChildren();
+                    continue;
+                }
+                while (p.nextToken() != JsonToken.END_ARRAY) {
+                    if (year == 0 && p.currentToken() == JsonToken.VALUE_NUMBER_INT) year = p.getIntValue();
+                    else p.skipChildren();
+                }
+            }
+        }
+        return year;
+    }
+
+    // --- Records and indexes ---
+
+    /** Record layout: body length, then DOI, title, authors and year. */
+    private static void writeWork(DataOutputStream out, Work work) throws IOException {
+        byte[] doi = work.doi.getBytes(StandardCharsets.UTF_8);
+        byte[] title = work.title.getBytes(StandardCharsets.UTF_8);
+        byte[] authors = work.authors.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(12 + doi.length + title.length + authors.length + 4);
+        out.writeInt(doi.length);
+        out.write(doi);
+        out.writeInt(title.length);
+        out.write(title);
+        out.writeInt(authors.length);
+        out.write(authors);
+        out.writeInt(work.year);
+    }
+
+    /** Called with the read lock held. */
+    private Work readWork(long offset) throws IOException {
+        ByteBuffer length = ByteBuffer.allocate(4);
+        readFully(works, length, offset);
+        ByteBuffer body = ByteBuffer.allocate(length.getInt(0));
+        readFully(works, body, offset + 4);
+        body.flip();
+        return new Work(readString(body), readString(body), readString(body), body.getInt());
+    }
+
+    /** Called with the read lock held. @return the offsets of the records whose key matches */
+    private static List<Long> find(FileChannel index, long key) throws IOException {
+        if (key == 0) return List.of();
+
+        ByteBuffer pair = ByteBuffer.allocate(PAIR_BYTES);
+        long lo = 0;
+        long hi = index.size() / PAIR_BYTES;
+        while (lo < hi) {
+            long mid = (lo + hi) >>> 1;
+            pair.clear();
+            readFully(index, pair, mid * PAIR_BYTES);
+            if (pair.getLong(0) < key) lo = mid + 1;
+            else hi = mid;
+        }
+
+        List<Long> offsets = new ArrayList<>(1);
+        long total = index.size() / PAIR_BYTES;
+        for (long i = lo; i < total; i++) {
+            pair.clear();
+            readFully(index, pair, i * PAIR_BYTES);
+            if (pair.getLong(0) != key) break;
+            offsets.add(pair.getLong(8));
+        }
+        return offsets;
+    }
+
+    /**
+     * Scans works.dat and writes both indexes to temporary files, then swaps
+     * them in. Lookups wait only for the swap.
+     */
+    private void rebuildIndexes() throws IOException {
+        Path worksFile = dir.resolve("works.dat");
+        PairList dois = new PairList();
+        PairList titles = new PairList();
+        TrigramIndex trigrams = new TrigramIndex();
+        Path offsetsTmp = Files.createTempFile(dir, "offsets", ".tmp");
+        long end;
+
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(worksFile), 64 * 1024));
+                DataOutputStream ordinals = new DataOutputStream(
+                        new BufferedOutputStream(Files.newOutputStream(offsetsTmp), 64 * 1024))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Unknown offline catalog format: " + worksFile);
+            }
+            long offset = HEADER_BYTES;
+            long total = Files.size(worksFile);
+            while (offset + 4 <= total) {
+                int length = in.readInt();
+                // An import killed mid-write leaves a partial record at the end
+                if (length < 16 || offset + 4 + length > total) break;
+                byte[] body = new byte[length];
+                in.readFully(body);
+
+                ByteBuffer record = ByteBuffer.wrap(body);
+                String doi = readString(record);
+                String title = readString(record);
+                if (!doi.isEmpty()) dois.add(doiKey(doi), offset);
+                titles.add(LocalWorksIndex.titleHash(title), offset);
+                trigrams.add(trigrams.size(), title);
+                ordinals.writeLong(offset);
+                offset += 4 + length;
+            }
+            end = offset;
+        }
+        truncate(worksFile, end);
+
+        Path doiTmp = dois.writeSorted(dir);
+        Path titleTmp = titles.writeSorted(dir);
+        Path trigramTmp = Files.createTempFile(dir, "titles", ".tmp");
+        trigrams.write(trigramTmp);
+
+        lock.writeLock().lock();
+        try {
+            // Closed first, as some systems refuse to replace an open file. A
+            // mapped file stays mapped until the buffer is collected, so the
+            // trigram index is not replaced but written as a new generation.
+            closeChannels();
+            Files.move(trigramTmp, trigramFile(trigramGeneration() + 1), StandardCopyOption.ATOMIC_MOVE);
+            Files.move(doiTmp, dir.resolve("doi.idx"), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+            Files.move(titleTmp, dir.resolve("title.idx"), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+            Files.move(offsetsTmp, dir.resolve("offsets.idx"), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        open();
+    }
+
+    /**
+     * Cuts works.dat back to the records the indexes cover. An import killed
+     * before its rebuild leaves records, the last possibly partial, that the
+     * next import would otherwise append after.
+     */
+    private void dropUnindexedTail(Path worksFile) throws IOException {
+        Path offsetsFile = dir.resolve("offsets.idx");
+        if (!Files.exists(worksFile)) return;
+        if (!Files.exists(offsetsFile)) {
+            // No import has completed yet
+            truncate(worksFile, 0);
+            return;
+        }
+
+        long end = HEADER_BYTES;
+        try (FileChannel ordinals = FileChannel.open(offsetsFile, StandardOpenOption.READ);
+                FileChannel records = FileChannel.open(worksFile, StandardOpenOption.READ)) {
+            if (ordinals.size() >= 8) {
+                ByteBuffer last = ByteBuffer.allocate(8);
+                readFully(ordinals, last, ordinals.size() - 8);
+                ByteBuffer length = ByteBuffer.allocate(4);
+                readFully(records, length, last.getLong(0));
+                end = last.getLong(0) + 4 + length.getInt(0);
+            }
+        }
+        truncate(worksFile, end);
+    }
+
+    private static void truncate(Path file, long size) throws IOException {
+        if (Files.size(file) <= size) return;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(size);
+        }
+    }
+
+    /** @return the sorted DOI keys of the catalog, empty if there is none */
+    private long[] indexedDoiKeys() throws IOException {
+        Path doiFile = dir.resolve("doi.idx");
+        if (!Files.exists(doiFile)) return new long[0];
+
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(doiFile), 64 * 1024))) {
+            long[] keys = new long[(int) (Files.size(doiFile) / PAIR_BYTES)];
+            for (int i = 0; i < keys.length; i++) {
+                keys[i] = in.readLong();
+                in.readLong();
+            }
+            return keys;
+        }
+    }
+
+    private Path trigramFile(int generation) {
+        return dir.resolve("titles." + generation + ".tri");
+    }
+
+    /** @return the newest trigram index generation, or -1 if there is none */
+    private int trigramGeneration() throws IOException {
+        int newest = -1;
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                int generation = parseGeneration(file.getFileName().toString());
+                if (generation > newest) newest = generation;
+            }
+        }
+        return newest;
+    }
+
+    /** @return N for "titles.N.tri", otherwise -1 */
+    private static int parseGeneration(String name) {
+        if (!name.startsWith("titles.") || !name.endsWith(".tri") || name.length() <= "titles..tri".length()) {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(name.substring("titles.".length(), name.length() - ".tri".length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /** Older generations may still be mapped; those are deleted by a later call. */
+    private void deleteOldTrigrams(int current) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                int generation = parseGeneration(file.getFileName().toString());
+                if (generation < 0 || generation >= current) continue;
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException e) {
+                    // Still mapped
+                }
+            }
+        }
+    }
+
+    /** Called with the write lock held. */
+    private void closeChannels() {
+        for (FileChannel channel : new FileChannel[] { works, doiIndex, titleIndex, offsets }) {
+            if (channel == null) continue;
+            try {
+                channel.close();
+            } catch (IOException e) {
+                log("WARN", "Could not close the offline catalog: " + e.getMessage());
+            }
+        }
+        works = null;
+        doiIndex = null;
+        titleIndex = null;
+        offsets = null;
+        titleTrigrams = null;
+    }
+
+    /** 64-bit FNV-1a of the normalized DOI; never 0. */
+    private static long doiKey(String doi) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < doi.length(); i++) {
+            hash ^= doi.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash == 0 ? 1 : hash;
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) throw new EOFException("Offline catalog is truncated");
+        }
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        ByteBuffer slice = in.slice();
+        slice.limit(length);
+        in.position(in.position() + length);
+        return StandardCharsets.UTF_8.decode(slice).toString();
+    }
+
+    private void log(String category, String message) {
+        if (logger != null) logger.log(category, message);
+    }
+
+    /** Growable (key, offset) pairs, sorted by key when written. */
+    private static class PairList {
+        private long[] keys = new long[1024];
+        private long[] offsets = new long[1024];
+        private int size;
+
+        void add(long key, long offset) {
+            if (key == 0) return;
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+                offsets = Arrays.copyOf(offsets, size * 2);
+            }
+            keys[size] = key;
+            offsets[size] = offset;
+            size++;
+        }
+
+        Path writeSorted(Path dir) throws IOException {
+            sort(0, size - 1);
+            Path tmp = Files.createTempFile(dir, "index", ".tmp");
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(tmp), 64 * 1024))) {
+                for (int i = 0; i < size; i++) {
+                    out.writeLong(keys[i]);
+                    out.writeLong(offsets[i]);
+                }
+            }
+            return tmp;
+        }
+
+        /** Quicksort on both arrays at once; ties keep no particular order. */
+        private void sort(int lo, int hi) {
+            while (lo < hi) {
+                long pivot = keys[(lo + hi) >>> 1];
+                int i = lo;
+                int j = hi;
+                while (i <= j) {
+                    while (keys[i] < pivot) i++;
+                    while (keys[j] > pivot) j--;
+                    if (i <= j) {
+                        swap(i++, j--);
+                    }
+                }
+                // Recurse into the smaller half, loop on the larger one
+                if (j - lo < hi - i) {
+                    sort(lo, j);
+                    lo = i;
+                } else {
+                    sort(i, hi);
+                    hi = j;
+                }
+            }
+        }
+
+        private void swap(int a, int b) {
+            long k = keys[a];
+            keys[a] = keys[b];
+            keys[b] = k;
+            long o = offsets[a];
+            offsets[a] = offsets[b];
+            offsets[b] = o;
+        }
+    }
+}
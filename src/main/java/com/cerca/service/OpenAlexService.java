@@ -1,12 +1,13 @@
 package com.cerca.service;
 
+import com.cerca.model.MatchResult;
 import com.cerca.model.ReferenceItem;
+import com.cerca.utils.MatchScorer;
+import com.cerca.utils.SingleFlight;
+import com.cerca.utils.TextNormalizer;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
-import javafx.application.Platform;
-import javafx.scene.paint.Color;
-import me.xdrop.fuzzywuzzy.FuzzySearch;
 
 import java.net.URI;
 import java.net.URLEncoder;
@@ -19,6 +20,9 @@ import java.time.Duration;
 public class OpenAlexService {
 
     private final HttpClient client;
+
+    /** Identical requests from concurrent verifications share one response. */
+    private final SingleFlight<String, HttpResponse<String>> requests = new SingleFlight<>();
     private final LogService logger;   
   
       
@@ -26,6 +30,9 @@ public class OpenAlexService {
     
     private static final String API_URL = "https://api.openalex.org/works";
 
+    /** Author score below which the title alone decides, capped at 50. */
+    private static final int AUTHOR_FLOOR = 40;
+
     public OpenAlexService(LogService logger) {
         this.logger = logger;
         this.client = HttpClient.newBuilder()
@@ -34,9 +41,13 @@ public class OpenAlexService {
                 .build();
     }
 
-    public boolean verify(ReferenceItem item) {
+    /**
+     * @return the best record with its score if it is a plausible match
+     *         (score above 50), otherwise null
+     */
+    public MatchResult verify(ReferenceItem item) {
         String queryTerm = item.getPdfTitle();
-        if (queryTerm == null || queryTerm.length() < 5) return false;
+        if (queryTerm == null || queryTerm.length() < 5) return null;
 
         try {
             // 1. Build Query
@@ -55,7 +66,8 @@ public class OpenAlexService {
             String title = cleanText(item.getPdfTitle());
 	        String author = cleanText(item.getAuthors());
 	        
-            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            HttpResponse<String> response = requests.run(url,
+                    () -> client.send(request, HttpResponse.BodyHandlers.ofString()));
             logger.log("API_REQ", String.format("Open Alex ID %d | Querying: Title='%s' Author='%s' Email='%s'", 
 	                item.getId(), title, author, email));
             
@@ -65,29 +77,25 @@ public class OpenAlexService {
                 logger.log("ERROR", "OpenAlex Error: " + response.statusCode());
             }
 
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         } catch (Exception e) {
             logger.log("ERROR", "OpenAlex Connection Error: " + e.getMessage());
         }
-        return false;
+        return null;
     }
     
 	/** Helper to safely format text for a URL**/
 	private String cleanText(String text) {
-	    if (text == null) return "";
-	    
-	    
-	    String clean = text.replaceAll("[^a-zA-Z0-9\\s]", "");
-	    
-	    
-	    return clean.trim().replace(" ", "+");
+	    return TextNormalizer.toQuery(text).replace(' ', '+');
 	}
 
-    private boolean parseAndScore(String json, ReferenceItem item) {
+    private MatchResult parseAndScore(String json, ReferenceItem item) {
         try {
             JsonObject root = JsonParser.parseString(json).getAsJsonObject();
             JsonArray results = root.getAsJsonArray("results");
 
-            if (results.size() == 0) return false;
+            if (results.size() == 0) return null;
 
             // Get best match
             JsonObject work = results.get(0).getAsJsonObject();
@@ -120,48 +128,27 @@ public class OpenAlexService {
             }
             String dbAuthors = sb.toString();
             
-            // Need final variable for lambda
-            final String finalDbDoi = dbDoi;
+            // OpenAlex returns the DOI as a URL
+            final String finalDbDoi = dbDoi.replace("https://doi.org/", "");
 
-            // --- 2. Scoring (Same Standard Logic) ---
-            int titleScore = FuzzySearch.ratio(dbTitle.toLowerCase(), item.getPdfTitle().toLowerCase());
-            int authorScore = FuzzySearch.tokenSortRatio(dbAuthors, item.getAuthors());
+            int year = work.has("publication_year") && !work.get("publication_year").isJsonNull()
+                    ? work.get("publication_year").getAsInt()
+                    : 0;
 
-            int finalScore;
-            if (authorScore < 40) {
-                finalScore = Math.min(titleScore, 50);
-            } else {
-                finalScore = (int) ((titleScore * 0.6) + (authorScore * 0.4));
-            }
+            // --- 2. Scoring (Same Standard Logic) ---
+            MatchResult result = MatchScorer.score("OpenAlex", item, dbTitle, dbAuthors, finalDbDoi, year,
+                    false, AUTHOR_FLOOR);
 
-            // --- 3. Update UI ---
-            if (finalScore > 50) {
-                Platform.runLater(() -> {
-                	item.crossrefTitleProperty().set(dbTitle);
-					item.dBAuthorsProperty().set(dbAuthors);
-                    
-
-                    
-                    item.matchScoreProperty().set(finalScore);
-
-                    if (finalScore > 75) {
-                        item.statusProperty().set("✅ PASS");
-                        item.statusColorProperty().set(Color.GREEN);
-                        item.setVerified(true);
-                    } else {
-                        item.statusProperty().set("! CHECK");
-                        item.statusColorProperty().set(Color.ORANGE);
-                    }
-                });
-                
+            // --- 3. Result ---
+            if (result.getScore() > 50) {
                 logger.log("API_RES", "[OpenAlex] Match: " + dbTitle);
-                return true;
+                return result;
             }
 
         } catch (Exception e) {
             logger.log("ERROR", "OpenAlex Parse Error: " + e.getMessage());
         }
-        return false;
+        return null;
     }
 
 	/**
@@ -1,88 +1,234 @@
 package com.cerca.service;
 
 import com.cerca.model.ReferenceItem;
+import com.cerca.utils.TextNormalizer;
+import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
  * Export the data to a TXT diagnosis file locally stored.
  *
+ * The report is written in one pass over the references. The summary comes
+ * first in the file but is only known at the end, so the diagnostics are
+ * spooled to a temporary file and copied after it. Memory use does not grow
+ * with the number of references or documents.
+ *
  * @author Lidiany Cerqueira
  */
 public class ReportService {
 
-    public void exportReport(List<ReferenceItem> items, File file) throws IOException {
-        StringBuilder sb = new StringBuilder();
-        
-        long total = items.size();
-        long verified = items.stream().filter(i -> i.isVerified()).count();
-        long suspicious = total - verified;
-        
-        
-        sb.append("CERCA - INTEGRITY DIAGNOSTIC REPORT\n");
-        sb.append("Generated: ").append(LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm"))).append("\n");
-        sb.append("File: ").append(file.getName()).append("\n");
-        sb.append("* DISCLAIMER: This software is an experimental tool intended\n"
-        		+ " to help verify bibliographic references, but is not 100% accurate. \n" +
-	               "It does not replace manual verification. Always check the original source.\n");
-        sb.append("==================================================\n\n");
-        
-        sb.append("SUMMARY\n");
-        sb.append("-------\n");
-        sb.append(String.format("Total References: %d\n", total));
-        sb.append(String.format("✅ Verified:       %d\n", verified));
-        sb.append(String.format("⚠️ Review Needed:  %d\n", suspicious));
-        
-        sb.append("\n==================================================\n");
-        sb.append("DIAGNOSTICS: ITEMS REQUIRING ATTENTION\n");
-        sb.append("==================================================\n\n");
-
-        if (suspicious == 0) {
-            sb.append("No issues detected. All references verified with high confidence.\n");
-        } else {
-            //int count = 1;
+    private static final String RULE = "==================================================\n";
+
+    public void exportReport(Iterable<ReferenceItem> items, File file) throws IOException {
+        try (ReportWriter report = open(file)) {
+            report.addDocument(null, items);
+        }
+    }
+
+    /**
+     * Starts a report on several documents. Each call to
+     * {@link ReportWriter#addDocument(String, Iterable)} adds a section; the
+     * combined summary is written when the report is closed.
+     */
+    public ReportWriter open(File file) throws IOException {
+        return new ReportWriter(file);
+    }
+
+    /** Builds one report, document by document. */
+    public static class ReportWriter implements Closeable {
+
+        private final File file;
+        private final Path spoolPath;
+        private final Writer spool;
+        private final List<Section> sections = new ArrayList<>();
+
+        ReportWriter(File file) throws IOException {
+            this.file = file;
+            this.spoolPath = Files.createTempFile("cerca-report", ".txt");
+            this.spool = Files.newBufferedWriter(spoolPath, StandardCharsets.UTF_8);
+        }
+
+        /**
+         * Adds the diagnostics of one document.
+         *
+         * @param name the document name, or null for a single-document report
+         */
+        public void addDocument(String name, Iterable<ReferenceItem> items) throws IOException {
+            Section section = new Section(name);
+            CountingWriter out = new CountingWriter(spool);
+
             for (ReferenceItem item : items) {
-            	
-                if (item.getMatchScore() < 80 && !item.isVerified()) {
-                    sb.append(String.format("#%s\n", item.getId()));
-                    
-                    String diagnosis = getDiagnosis(item);
-                    sb.append("🔴 DIAGNOSIS: ").append(diagnosis).append("\n");
-                    sb.append("--------------------------------------------------\n");
-                    
-                    // 1. PDF DATA (What was found in the document)
-                    sb.append("   PDF Title:   ").append(item.getPdfTitle()).append("\n");
-                    sb.append("   PDF Authors: ").append(item.getAuthors()).append("\n"); 
-                    
-                    // 2. CROSSREF DATA (What was found in the database)
-                    if (item.getDbTitle() != null && !item.getDbTitle().isEmpty()) {
-                        sb.append("\n");
-                        sb.append("   DB Title:    ").append(item.getDbTitle()).append("\n");
-                        sb.append("   DB Authors:  ").append(item.getDbAuthors()).append("\n"); 
-                        sb.append("   Similarity:  ").append(item.getMatchScore()).append("%\n");
-                    }
-                    
-                    if (item.getDetectedDoi() != null && !item.getDetectedDoi().isEmpty()) {
-                        sb.append("   PDF DOI:     ").append(item.getDetectedDoi()).append("\n");
+                section.total++;
+                if (item.isVerified()) {
+                    section.verified++;
+                } else if (item.getMatchScore() < 80) {
+                    writeDiagnosis(out, item);
+                }
+            }
+            if (section.total == section.verified) {
+                out.write("No issues detected. All references verified with high confidence.\n");
+            }
+
+            section.chars = out.count;
+            sections.add(section);
+        }
+
+        private static void writeDiagnosis(Writer out, ReferenceItem item) throws IOException {
+            out.write("#" + item.getId() + "\n");
+
+            out.write("🔴 DIAGNOSIS: ");
+            out.write(getDiagnosis(item));
+            out.write("\n--------------------------------------------------\n");
+
+            // 1. PDF DATA (What was found in the document)
+            out.write("   PDF Title:   " + item.getPdfTitle() + "\n");
+            out.write("   PDF Authors: " + item.getAuthors() + "\n");
+
+            // 2. CROSSREF DATA (What was found in the database)
+            if (item.getDbTitle() != null && !item.getDbTitle().isEmpty()) {
+                out.write("\n");
+                out.write("   DB Title:    " + item.getDbTitle() + "\n");
+                out.write("   DB Authors:  " + item.getDbAuthors() + "\n");
+                out.write("   Similarity:  " + item.getMatchScore() + "%\n");
+            }
+
+            if (item.getDetectedDoi() != null && !item.getDetectedDoi().isEmpty()) {
+                out.write("   PDF DOI:     " + item.getDetectedDoi() + "\n");
+            }
+
+            out.write("\n");
+        }
+
+        /** Writes the summary, then copies the spooled sections after it. */
+        @Override
+        public void close() throws IOException {
+            spool.close();
+            try (Writer out = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8);
+                    Reader reader = Files.newBufferedReader(spoolPath, StandardCharsets.UTF_8)) {
+                writeHeader(out);
+
+                long total = 0;
+                long verified = 0;
+                for (Section section : sections) {
+                    total += section.total;
+                    verified += section.verified;
+                }
+                boolean multi = sections.size() > 1;
+
+                out.write("SUMMARY\n");
+                out.write("-------\n");
+                if (multi) {
+                    out.write("Documents:        " + sections.size() + "\n");
+                }
+                writeCounts(out, total, verified);
+
+                // Sections are read back in the order they were spooled
+                char[] buffer = new char[8192];
+
+                if (!multi) {
+                    out.write("\n" + RULE);
+                    out.write("DIAGNOSTICS: ITEMS REQUIRING ATTENTION\n");
+                    out.write(RULE + "\n");
+                }
+                for (Section section : sections) {
+                    if (multi) {
+                        out.write("\n" + RULE);
+                        out.write("DOCUMENT: " + section.name + "\n");
+                        out.write(RULE);
+                        writeCounts(out, section.total, section.verified);
+                        out.write("\nDIAGNOSTICS: ITEMS REQUIRING ATTENTION\n\n");
                     }
-                    
-                    sb.append("\n");
+                    copy(reader, out, section.chars, buffer);
                 }
+
+                out.write(RULE);
+                out.write("End of Report\n");
+            } finally {
+                Files.deleteIfExists(spoolPath);
             }
         }
-        
-        sb.append("==================================================\n");
-        sb.append("End of Report\n");
-       
 
-        Files.writeString(file.toPath(), sb.toString());
+        private void writeHeader(Writer out) throws IOException {
+            out.write("CERCA - INTEGRITY DIAGNOSTIC REPORT\n");
+            out.write("Generated: " + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm")) + "\n");
+            out.write("File: " + file.getName() + "\n");
+            out.write("* DISCLAIMER: This software is an experimental tool intended\n"
+                    + " to help verify bibliographic references, but is not 100% accurate. \n"
+                    + "It does not replace manual verification. Always check the original source.\n");
+            out.write(RULE + "\n");
+        }
+
+        private static void writeCounts(Writer out, long total, long verified) throws IOException {
+            out.write("Total References: " + total + "\n");
+            out.write("✅ Verified:       " + verified + "\n");
+            out.write("⚠️ Review Needed:  " + (total - verified) + "\n");
+        }
+
+        private static void copy(Reader reader, Writer out, long chars, char[] buffer) throws IOException {
+            long left = chars;
+            while (left > 0) {
+                int n = reader.read(buffer, 0, (int) Math.min(buffer.length, left));
+                if (n < 0) throw new IOException("Report spool ended early");
+                out.write(buffer, 0, n);
+                left -= n;
+            }
+        }
+    }
+
+    private static class Section {
+        final String name;
+        long total;
+        long verified;
+        long chars;
+
+        Section(String name) {
+            this.name = name;
+        }
+    }
+
+    /** Counts the characters written, to find each section in the spool. */
+    private static class CountingWriter extends Writer {
+        private final Writer out;
+        long count;
+
+        CountingWriter(Writer out) {
+            this.out = out;
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) throws IOException {
+            out.write(cbuf, off, len);
+            count += len;
+        }
+
+        @Override
+        public void write(String str) throws IOException {
+            out.write(str);
+            count += str.length();
+        }
+
+        @Override
+        public void flush() throws IOException {
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
     }
 
-    private String getDiagnosis(ReferenceItem item) {
+    static String getDiagnosis(ReferenceItem item) {
         if (item.getDbTitle() == null || item.getDbTitle().isEmpty()) {
             return "NO MATCH FOUND. This paper does not appear in the Crossref/Zenodo databases.";
         }
@@ -93,12 +239,11 @@ public class ReportService {
             }
         }
 
-        String pdfAuth = item.getAuthors().toLowerCase();
-        String dbAuth = item.getDbAuthors().toLowerCase();
-        
-        if (item.getMatchScore() > 60 && !pdfAuth.isEmpty() && !dbAuth.isEmpty()) {
-            String firstAuthor = pdfAuth.split(" ")[0].replaceAll(",", "");
-            if (!dbAuth.contains(firstAuthor)) {
+        if (item.getMatchScore() > 60) {
+            String pdfAuth = item.getAuthors();
+            String dbAuth = item.getDbAuthors();
+            if (pdfAuth != null && !pdfAuth.isEmpty() && dbAuth != null && !dbAuth.isEmpty()
+                    && !TextNormalizer.fold(dbAuth).contains(firstAuthor(pdfAuth))) {
                 return "AUTHOR MISMATCH. Titles are similar, but the author lists do not match.";
             }
         }
@@ -110,4 +255,16 @@ public class ReportService {
 
         return "LOW CONFIDENCE MATCH. Verify spelling or formatting.";
     }
-}
\ No newline at end of file
+
+    /** The first word of the author list, folded and without commas. */
+    private static String firstAuthor(String authors) {
+        int end = authors.indexOf(' ');
+        String first = end < 0 ? authors : authors.substring(0, end);
+        StringBuilder sb = new StringBuilder(first.length());
+        for (int i = 0; i < first.length(); i++) {
+            char c = first.charAt(i);
+            if (c != ',') sb.append(c);
+        }
+        return TextNormalizer.fold(sb.toString());
+    }
+}
@@ -8,14 +8,14 @@ import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 
+import com.cerca.model.MatchResult;
 import com.cerca.model.ReferenceItem;
+import com.cerca.utils.MatchScorer;
+import com.cerca.utils.SingleFlight;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 
-import javafx.application.Platform;
-import javafx.scene.paint.Color;
-import me.xdrop.fuzzywuzzy.FuzzySearch;	
 
 /**
  * Queries the SemanticScholar API to search for a paper by title and verifies
@@ -25,12 +25,18 @@ import me.xdrop.fuzzywuzzy.FuzzySearch;
 public class SemanticScholarService {
 
     private final HttpClient client;
+
+    /** Identical requests from concurrent verifications share one response, and one wait. */
+    private final SingleFlight<String, HttpResponse<String>> requests = new SingleFlight<>();
     private final LogService logger;
     private String apiKey = ""; // Stores the API key
 
     // Semantic Scholar API Endpoint
     private static final String API_URL = "https://api.semanticscholar.org/graph/v1/paper/search";
 
+    /** Author score below which the title alone decides, capped at 50. */
+    private static final int AUTHOR_FLOOR = 40;
+
     public SemanticScholarService(LogService logger) {
         this.logger = logger;
         this.client = HttpClient.newBuilder()
@@ -40,11 +46,15 @@ public class SemanticScholarService {
     }
     
 
-    public boolean verify(ReferenceItem item) {
+    /**
+     * @return the best record with its score if it is a plausible match
+     *         (score above 50), otherwise null
+     */
+    public MatchResult verify(ReferenceItem item) {
     	
     	if(apiKey.equals("")) {
     		logger.log("ERROR", "Set your SemanticScholar API key.");
-    		return false;
+    		return null;
     	}
     	
         String queryTerm = item.getPdfTitle();
@@ -56,19 +66,14 @@ public class SemanticScholarService {
             queryTerm = item.getRawText();
 
         if (queryTerm == null || queryTerm.length() < 5)
-            return false;
+            return null;
             
         for (int attempt = 0; attempt <= maxRetries; attempt++) {
             try {
-                String cleanQuery = queryTerm.replaceAll("[^a-zA-Z0-9\\s]", " ").trim();
+                String cleanQuery = item.getQueryText();
                 String encodedQuery = URLEncoder.encode(cleanQuery, StandardCharsets.UTF_8);
 
-                try {
-                    Thread.sleep(waitTime);
-                } catch (InterruptedException ignored) {
-                }
-                
-                String url = API_URL + "?query=" + encodedQuery + "&limit=1&fields=title,authors,externalIds,url";
+                String url = API_URL + "?query=" + encodedQuery + "&limit=1&fields=title,authors,externalIds,url,year";
 
                 logger.log("API_REQ", "SemanticScholar URL: " + url);
 
@@ -84,39 +89,44 @@ public class SemanticScholarService {
 
                 HttpRequest request = requestBuilder.build();
 
-                HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+                int wait = waitTime;
+                HttpResponse<String> response = requests.run(url, () -> {
+                    Thread.sleep(wait);
+                    return client.send(request, HttpResponse.BodyHandlers.ofString());
+                });
 
                 if (response.statusCode() == 200) {
                     return parseAndScore(response.body(), item);
                 } else if (response.statusCode() == 429) {
                     logger.log("ERROR", "SemanticScholar Rate Limit Hit (429)");
-                    try {
-                        Thread.sleep(waitTime);
-                    } catch (InterruptedException ignored) {
-                    }
+                    Thread.sleep(waitTime);
                     waitTime *= 2; 
                     continue; 
                 } else if (response.statusCode() == 403) {
                     // 403 usually means the API key is invalid
                     logger.log("ERROR", "SemanticScholar Forbidden (403) - Check if your API key is valid.");
-                    return false; // Don't retry if the key is rejected
+                    return null; // Don't retry if the key is rejected
                 } else {
                     logger.log("ERROR", "SemanticScholar API Error: " + response.statusCode());
                 }
 
+            } catch (InterruptedException e) {
+                // Verification was cancelled; do not retry
+                Thread.currentThread().interrupt();
+                return null;
             } catch (Exception e) {
                 logger.log("ERROR", "SemanticScholar Connection Error: " + e.getMessage());
             }
         }
-        return false;
+        return null;
     }
 
-    private boolean parseAndScore(String json, ReferenceItem item) {
+    private MatchResult parseAndScore(String json, ReferenceItem item) {
         try {
             JsonObject root = JsonParser.parseString(json).getAsJsonObject();
 
             if (!root.has("data") || root.getAsJsonArray("data").size() == 0)
-                return false;
+                return null;
 
             JsonObject paper = root.getAsJsonArray("data").get(0).getAsJsonObject();
 
@@ -152,47 +162,21 @@ public class SemanticScholarService {
             }
 
             // 2. Scoring
-            boolean isRawFallback = item.getPdfTitle().equals("Unknown Title");
-            String pdfSource = isRawFallback ? item.getRawText() : item.getPdfTitle();
-            String pdfAuthors = item.getAuthors();
-
-            int titleScore = isRawFallback ? FuzzySearch.partialRatio(dbTitle.toLowerCase(), pdfSource.toLowerCase())
-                    : FuzzySearch.ratio(dbTitle.toLowerCase(), pdfSource.toLowerCase());
-
-            int authorScore = FuzzySearch.tokenSortRatio(dbAuthors, pdfAuthors);
-
-            int finalScore;
-            if (authorScore < 40) {
-                finalScore = Math.min(titleScore, 50);
-            } else {
-                finalScore = (int) ((titleScore * 0.6) + (authorScore * 0.4));
-            }
-
-            // 3. UI Updates
-            if (finalScore > 50) {
-                Platform.runLater(() -> {
-                    item.crossrefTitleProperty().set(dbTitle);
-                    item.dBAuthorsProperty().set(dbAuthors);
-                    item.matchScoreProperty().set(finalScore);
-
-                    if (finalScore > 75) {
-                        item.statusProperty().set("✅ PASS");
-                        item.statusColorProperty().set(Color.GREEN);
-                        item.setVerified(true);
-                    } else {
-                        item.statusProperty().set("! CHECK");
-                        item.statusColorProperty().set(Color.ORANGE);
-                    }
-                });
-
-                logger.log("API_RES", String.format("[S.SCHOLAR] Match Found: '%s' (Score: %d)", dbTitle, finalScore));
-                return true;
+            int year = paper.has("year") && !paper.get("year").isJsonNull() ? paper.get("year").getAsInt() : 0;
+            MatchResult result = MatchScorer.score("Semantic Scholar", item, dbTitle, dbAuthors, dbDoi, year,
+                    "Unknown Title".equals(item.getPdfTitle()), AUTHOR_FLOOR);
+
+            // 3. Result
+            if (result.getScore() > 50) {
+                logger.log("API_RES", String.format("[S.SCHOLAR] Match Found: '%s' (Score: %d)", dbTitle,
+                        result.getScore()));
+                return result;
             }
 
         } catch (Exception e) {
             logger.log("ERROR", "Error parsing Semantic Scholar JSON: " + e.getMessage());
         }
-        return false;
+        return null;
     }
 
 	/**
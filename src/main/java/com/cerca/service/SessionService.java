@@ -0,0 +1,234 @@
+package com.cerca.service;
+
+import com.cerca.model.MatchResult;
+import com.cerca.model.ReferenceItem;
+import com.cerca.utils.IdentifierScanner;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javafx.scene.paint.Color;
+
+/**
+ * Saves the references on screen, with their verdicts, manual checkbox
+ * changes and matched database records, so a session can be reopened
+ * without extracting or verifying again.
+ *
+ * Sessions use a small binary format, written with a
+ * {@link DataOutputStream} and read back into one buffer, so a session of a
+ * thousand references reloads in milliseconds. The session
+ * open when the window is closed is kept as {@value #LAST_SESSION_FILE}.
+ *
+ * Layout: magic, version, document name, reference count, then for each
+ * reference its fields in the order of {@link #writeItem}. Strings are a
+ * length (-1 for null) followed by UTF-8 bytes.
+ */
+public class SessionService {
+
+    private static final String LAST_SESSION_FILE = "cerca_session.bin";
+    private static final int MAGIC = 0x43455243; // "CERC"
+    private static final int VERSION = 1;
+
+    private final LogService logger;
+
+    /** A document's references as they were saved. */
+    public static class Session {
+        private final String document;
+        private final List<ReferenceItem> items;
+
+        Session(String document, List<ReferenceItem> items) {
+            this.document = document;
+            this.items = items;
+        }
+
+        public String getDocument() {
+            return document;
+        }
+
+        public List<ReferenceItem> getItems() {
+            return items;
+        }
+    }
+
+    public SessionService(LogService logger) {
+        this.logger = logger;
+    }
+
+    /** @return where the session is saved when Cerca closes */
+    public File getLastSessionFile() {
+        return new File(LAST_SESSION_FILE);
+    }
+
+    /** Writes the session to a temporary file first, so a failed save never corrupts the previous one. */
+    public void save(String document, List<ReferenceItem> items, File file) throws IOException {
+        long start = System.currentTimeMillis();
+        Path target = file.toPath().toAbsolutePath();
+        Path tmp = Files.createTempFile(target.getParent(), "cerca_session", ".tmp");
+
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(tmp), 64 * 1024))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            writeString(out, document);
+            out.writeInt(items.size());
+            for (ReferenceItem item : items) {
+                writeItem(out, item);
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+        Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        log("Saved session of " + items.size() + " references to " + file.getName() + " in "
+                + (System.currentTimeMillis() - start) + " ms.");
+    }
+
+    public Session load(File file) throws IOException {
+        long start = System.currentTimeMillis();
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            // Not mapped, as Windows refuses to replace a mapped file when the session is saved on exit
+            ByteBuffer in = ByteBuffer.allocate((int) channel.size());
+            while (in.hasRemaining() && channel.read(in) >= 0) {
+                // Read the whole file
+            }
+            in.flip();
+
+            if (in.remaining() < 8 || in.getInt() != MAGIC) {
+                throw new IOException("Not a Cerca session file: " + file.getName());
+            }
+            int version = in.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported session version " + version + ": " + file.getName());
+            }
+
+            String document = readString(in);
+            int count = in.getInt();
+            List<ReferenceItem> items = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                items.add(readItem(in));
+            }
+
+            log("Loaded session of " + count + " references from " + file.getName() + " in "
+                    + (System.currentTimeMillis() - start) + " ms.");
+            return new Session(document, items);
+        } catch (RuntimeException e) {
+            // BufferUnderflowException and friends: the file is truncated
+            throw new IOException("Damaged session file: " + file.getName(), e);
+        }
+    }
+
+    private static void writeItem(DataOutputStream out, ReferenceItem item) throws IOException {
+        out.writeInt(item.getId());
+        writeString(out, item.getAuthors());
+        writeString(out, item.getPdfTitle());
+        writeString(out, item.getRawText());
+        writeString(out, item.getDetectedDoi());
+
+        writeString(out, item.getStatus());
+        writeString(out, item.getStatusColor().toString());
+        out.writeInt(item.getMatchScore());
+        writeString(out, item.getDbTitle());
+        writeString(out, item.getDbAuthors());
+        out.writeBoolean(item.isVerified());
+        out.writeBoolean(hasVerdict(item));
+
+        MatchResult match = item.getMatch();
+        out.writeBoolean(match != null);
+        if (match != null) {
+            writeString(out, match.getSource());
+            writeString(out, match.getDbTitle());
+            writeString(out, match.getDbAuthors());
+            writeString(out, match.getDbDoi());
+            out.writeInt(match.getTitleScore());
+            out.writeInt(match.getAuthorScore());
+            out.writeInt(match.getScore());
+        }
+
+        Map<String, Long> timings = item.getStageTimings();
+        out.writeInt(timings.size());
+        for (Map.Entry<String, Long> stage : timings.entrySet()) {
+            writeString(out, stage.getKey());
+            out.writeLong(stage.getValue());
+        }
+    }
+
+    private static ReferenceItem readItem(ByteBuffer in) {
+        int id = in.getInt();
+        String authors = readString(in);
+        String pdfTitle = readString(in);
+        String rawText = readString(in);
+        String doi = readString(in);
+        ReferenceItem item = new ReferenceItem(id, "WAITING", authors, pdfTitle, rawText, doi);
+        // The arXiv id, ISBN and URL are not saved; they are found again in the raw text
+        IdentifierScanner.apply(item);
+
+        String status = readString(in);
+        Color color = Color.web(readString(in));
+        int score = in.getInt();
+        String dbTitle = readString(in);
+        String dbAuthors = readString(in);
+        boolean verified = in.get() != 0;
+        boolean verdict = in.get() != 0;
+
+        if (verdict) {
+            item.restoreVerdict(status, color, score, dbTitle, dbAuthors, verified);
+        }
+
+        if (in.get() != 0) {
+            item.setMatch(new MatchResult(readString(in), readString(in), readString(in), readString(in),
+                    in.getInt(), in.getInt(), in.getInt()));
+        }
+
+        int stages = in.getInt();
+        Map<String, Long> timings = new LinkedHashMap<>();
+        for (int i = 0; i < stages; i++) {
+            timings.put(readString(in), in.getLong());
+        }
+        item.setStageTimings(timings);
+        return item;
+    }
+
+    /** @return true if the reference has been verified, or its box ticked by hand */
+    private static boolean hasVerdict(ReferenceItem item) {
+        String status = item.getStatus();
+        return status != null && (status.startsWith("✅") || status.startsWith("!") || status.startsWith("❌"));
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) return null;
+
+        ByteBuffer slice = in.slice();
+        slice.limit(length);
+        in.position(in.position() + length);
+        return StandardCharsets.UTF_8.decode(slice).toString();
+    }
+
+    private void log(String message) {
+        if (logger != null) logger.log("SYSTEM", message);
+    }
+}
@@ -0,0 +1,175 @@
+package com.cerca.service;
+
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import com.cerca.model.ReferenceItem;
+import com.cerca.utils.ReferenceFingerprint;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+import javafx.scene.paint.Color;
+
+/**
+ * Remembers the verdicts of previous verification runs, per document.
+ *
+ * When a revised manuscript is loaded, references whose fingerprint (raw text
+ * plus DOI) did not change get their previous verdict back, and only new or
+ * edited references are sent to the online databases.
+ *
+ * Verdicts are stored locally as one JSON file per document.
+ */
+public class VerdictHistoryService {
+
+    private static final Path HISTORY_DIR = Paths.get("cerca_history");
+
+    /** Strips revision markers such as "_v2", "-rev1", " final" or " (3)" from file names. */
+    private static final Pattern REVISION_SUFFIX = Pattern.compile(
+            "([ _.-]+(v\\d+|rev(ised)?\\d*|r\\d+|final)|\\s*\\(\\d+\\))+$", Pattern.CASE_INSENSITIVE);
+
+    private final LogService logger;
+    private final Gson gson;
+
+    private String loadedKey;
+    private Map<String, Verdict> loadedVerdicts;
+
+    public VerdictHistoryService(LogService logger) {
+        this.logger = logger;
+        this.gson = new GsonBuilder().setPrettyPrinting().create();
+    }
+
+    /**
+     * Applies the saved verdicts of {@code document} to the unchanged items.
+     *
+     * @return the number of items whose verdict was carried forward
+     */
+    public int restore(String document, List<ReferenceItem> items) {
+        int restored = 0;
+        for (ReferenceItem item : items) {
+            if (restore(document, item)) restored++;
+        }
+
+        if (restored > 0) {
+            logger.log("INFO", String.format("History for %s: %d of %d references unchanged.",
+                    document, restored, items.size()));
+        }
+        return restored;
+    }
+
+    /**
+     * Applies the saved verdict of {@code document} to a single item, if the
+     * item did not change since that run.
+     */
+    public boolean restore(String document, ReferenceItem item) {
+        Verdict v = verdictsFor(document).get(ReferenceFingerprint.of(item.getRawText(), item.getDetectedDoi()));
+        if (v == null) return false;
+
+        item.restoreVerdict(v.status, Color.web(v.color), v.score, v.dbTitle, v.dbAuthors, v.verified);
+        return true;
+    }
+
+    /** Reads the history of a document once and keeps it while that document is loaded. */
+    private synchronized Map<String, Verdict> verdictsFor(String document) {
+        String key = documentKey(document);
+        if (key.equals(loadedKey)) return loadedVerdicts;
+
+        Map<String, Verdict> byFingerprint = new HashMap<>();
+        Path file = fileFor(document);
+        if (Files.exists(file)) {
+            try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                History history = gson.fromJson(reader, History.class);
+                if (history != null && history.verdicts != null) {
+                    for (Verdict v : history.verdicts) {
+                        byFingerprint.put(v.fingerprint, v);
+                    }
+                    logger.log("INFO", "Loaded verification history for " + document + " (saved " + history.saved + ")");
+                }
+            } catch (Exception e) {
+                logger.log("WARNING", "Could not read verification history for " + document + ": " + e.getMessage());
+            }
+        }
+
+        loadedKey = key;
+        loadedVerdicts = byFingerprint;
+        return byFingerprint;
+    }
+
+    /** Saves the current verdicts of all items, replacing the previous run. */
+    public void save(String document, List<ReferenceItem> items) {
+        History history = new History();
+        history.document = document;
+        history.saved = LocalDateTime.now().toString();
+        history.verdicts = new ArrayList<>(items.size());
+
+        for (ReferenceItem item : items) {
+            Verdict v = new Verdict();
+            v.fingerprint = ReferenceFingerprint.of(item.getRawText(), item.getDetectedDoi());
+            v.status = item.getStatus();
+            v.color = item.getStatusColor().toString();
+            v.score = item.getMatchScore();
+            v.dbTitle = item.getDbTitle();
+            v.dbAuthors = item.getDbAuthors();
+            v.verified = item.isVerified();
+            history.verdicts.add(v);
+        }
+
+        try {
+            Files.createDirectories(HISTORY_DIR);
+            try (Writer writer = Files.newBufferedWriter(fileFor(document), StandardCharsets.UTF_8)) {
+                gson.toJson(history, writer);
+            }
+            synchronized (this) {
+                loadedKey = null; // re-read on the next restore
+            }
+        } catch (Exception e) {
+            logger.log("ERROR", "Failed to save verification history for " + document + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Revised manuscripts are usually re-sent as "paper_v2.pdf" or
+     * "paper-revised.pdf", so the history is keyed by the file name without its
+     * extension and revision markers.
+     */
+    static String documentKey(String document) {
+        String name = document.trim();
+        int dot = name.lastIndexOf('.');
+        if (dot > 0) name = name.substring(0, dot);
+
+        String stem = REVISION_SUFFIX.matcher(name).replaceAll("");
+        if (stem.isEmpty()) stem = name;
+
+        return stem.toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9]+", "_");
+    }
+
+    private Path fileFor(String document) {
+        return HISTORY_DIR.resolve(documentKey(document) + ".json");
+    }
+
+    private static class History {
+        String document;
+        String saved;
+        List<Verdict> verdicts;
+    }
+
+    private static class Verdict {
+        String fingerprint;
+        String status;
+        String color;
+        int score;
+        String dbTitle;
+        String dbAuthors;
+        boolean verified;
+    }
+}
@@ -1,12 +1,12 @@
 package com.cerca.service;
 
+import com.cerca.model.MatchResult;
 import com.cerca.model.ReferenceItem;
+import com.cerca.utils.MatchScorer;
+import com.cerca.utils.SingleFlight;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
-import javafx.application.Platform;
-import javafx.scene.paint.Color;
-import me.xdrop.fuzzywuzzy.FuzzySearch;
 
 import java.net.URI;
 import java.net.URLEncoder;
@@ -28,8 +28,14 @@ import java.time.Duration;
 public class ZenodoService {
 
     private final HttpClient client;
+
+    /** Identical requests from concurrent verifications share one response. */
+    private final SingleFlight<String, HttpResponse<String>> requests = new SingleFlight<>();
     private final LogService logger;
 
+    /** Author score below which the title alone decides, capped at 50. */
+    private static final int AUTHOR_FLOOR = 40;
+
     public ZenodoService(LogService logger) {
         this.logger = logger;
         this.client = HttpClient.newBuilder()
@@ -38,15 +44,19 @@ public class ZenodoService {
                 .build();
     }
 
-    public boolean verify(ReferenceItem item) {
+    /**
+     * @return the best record with its score if it is a plausible match
+     *         (score above 50), otherwise null
+     */
+    public MatchResult verify(ReferenceItem item) {
         String queryTerm = item.getPdfTitle();
         boolean isRawFallback = (queryTerm == null || queryTerm.equals("Unknown Title") || queryTerm.length() < 5);
         if (isRawFallback) queryTerm = item.getRawText();
 
-        if (queryTerm == null || queryTerm.length() < 5) return false;
+        if (queryTerm == null || queryTerm.length() < 5) return null;
 
         try {
-            String cleanQuery = queryTerm.replaceAll("[^a-zA-Z0-9\\s]", " ").trim();
+            String cleanQuery = item.getQueryText();
             String encodedQuery = URLEncoder.encode(cleanQuery, StandardCharsets.UTF_8);
             String url = "https://zenodo.org/api/records?q=metadata.title:(" + encodedQuery + ")&sort=bestmatch&size=1";
 
@@ -57,7 +67,8 @@ public class ZenodoService {
                     .GET()
                     .build();
 
-            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            HttpResponse<String> response = requests.run(url,
+                    () -> client.send(request, HttpResponse.BodyHandlers.ofString()));
 
             if (response.statusCode() == 200) {
                 return parseAndScore(response.body(), item);
@@ -65,19 +76,21 @@ public class ZenodoService {
                 logger.log("ERROR", "Zenodo API Error: " + response.statusCode());
             }
 
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         } catch (Exception e) {
             logger.log("ERROR", "Zenodo Connection Error: " + e.getMessage());
         }
-        return false;
+        return null;
     }
 
-    private boolean parseAndScore(String json, ReferenceItem item) {
+    private MatchResult parseAndScore(String json, ReferenceItem item) {
         try {
             JsonObject root = JsonParser.parseString(json).getAsJsonObject();
-            if (!root.has("hits") || !root.getAsJsonObject("hits").has("hits")) return false;
+            if (!root.has("hits") || !root.getAsJsonObject("hits").has("hits")) return null;
             
             JsonArray hits = root.getAsJsonObject("hits").getAsJsonArray("hits");
-            if (hits.size() == 0) return false;
+            if (hits.size() == 0) return null;
 
             JsonObject record = hits.get(0).getAsJsonObject();
             JsonObject metadata = record.getAsJsonObject("metadata");
@@ -98,50 +111,26 @@ public class ZenodoService {
             }
             String zenAuthors = sb.toString();
 
-            // --- 2. Scoring ---
-            boolean isRawFallback = item.getPdfTitle().equals("Unknown Title");
-            String pdfSource = isRawFallback ? item.getRawText() : item.getPdfTitle();
-            String pdfAuthors = item.getAuthors();
+            String zenDoi = metadata.has("doi") ? metadata.get("doi").getAsString() : "";
+            // "publication_date": "2021-03-15"
+            String date = metadata.has("publication_date") ? metadata.get("publication_date").getAsString() : "";
+            int year = date.length() >= 4 && date.substring(0, 4).chars().allMatch(Character::isDigit)
+                    ? Integer.parseInt(date.substring(0, 4))
+                    : 0;
 
-            int titleScore = isRawFallback 
-                ? FuzzySearch.partialRatio(zenTitle.toLowerCase(), pdfSource.toLowerCase())
-                : FuzzySearch.ratio(zenTitle.toLowerCase(), pdfSource.toLowerCase());
-
-            int authorScore = FuzzySearch.tokenSortRatio(zenAuthors, pdfAuthors);
-            
-            int finalScore;
-            if (authorScore < 40) {
-                finalScore = Math.min(titleScore, 50);
-            } else {
-                finalScore = (int) ((titleScore * 0.6) + (authorScore * 0.4));
-            }
+            // --- 2. Scoring ---
+            MatchResult result = MatchScorer.score("Zenodo", item, zenTitle, zenAuthors, zenDoi, year,
+                    "Unknown Title".equals(item.getPdfTitle()), AUTHOR_FLOOR);
 
-          
-            if (finalScore > 50) {
-           
-                Platform.runLater(() -> {
-                    item.crossrefTitleProperty().set(zenTitle);   
-                    item.dBAuthorsProperty().set(zenAuthors); 
-                    
-                    item.matchScoreProperty().set(finalScore);
-                    
-                    if (finalScore > 75) {
-                        item.statusProperty().set("✅ PASS");
-                        item.statusColorProperty().set(Color.GREEN);
-                        item.setVerified(true);
-                    } else {
-                        item.statusProperty().set("! CHECK");
-                        item.statusColorProperty().set(Color.ORANGE);
-                    }
-                });
-                
-                logger.log("API_RES", String.format("[ZENODO] Match Found: '%s' (Score: %d)", zenTitle, finalScore));
-                return true;
+            if (result.getScore() > 50) {
+                logger.log("API_RES", String.format("[ZENODO] Match Found: '%s' (Score: %d)", zenTitle,
+                        result.getScore()));
+                return result;
             }
 
         } catch (Exception e) {
             logger.log("ERROR", "Error parsing Zenodo JSON: " + e.getMessage());
         }
-        return false;
+        return null;
     }
 }
\ No newline at end of file
@@ -0,0 +1,141 @@
+package com.cerca.utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import pl.edu.icm.cermine.bibref.CRFBibReferenceParser;
+import pl.edu.icm.cermine.bibref.model.BibEntry;
+import pl.edu.icm.cermine.exception.AnalysisException;
+
+/**
+ * Lets several threads parse references with CERMINE's CRF parser at once.
+ *
+ * CERMINE does not document {@link CRFBibReferenceParser} as thread-safe, so
+ * each parser instance is only ever used by one thread at a time. The pool
+ * starts with one parser and creates more (up to {@code maxSize}) only when
+ * all of them are busy. If the factory turns out to hand back the same
+ * instance every time, the pool stays at that single instance and calls are
+ * serialized.
+ *
+ * {@link CRFBibReferenceParser#getInstance()} is such a factory: it returns
+ * CERMINE's process-wide parser. The default pool therefore loads its own
+ * copy of the CRF model for each parser, see {@link #newParser()}.
+ *
+ * Each of those copies stays on the heap for as long as the pool lives,
+ * roughly {@value #ESTIMATED_MB_PER_PARSER} MB apiece. The default pool
+ * keeps them to a quarter of the heap budget, so a small budget gets a
+ * single parser.
+ */
+public class BibReferenceParserPool {
+
+    @FunctionalInterface
+    public interface ParserFactory {
+        CRFBibReferenceParser create() throws AnalysisException;
+    }
+
+    /** The model {@link CRFBibReferenceParser#getInstance()} loads. */
+    private static final String MODEL_RESOURCE = "/pl/edu/icm/cermine/bibref/acrf.ser.gz";
+
+    /** Rough heap cost of one loaded CRF model. */
+    public static final int ESTIMATED_MB_PER_PARSER = 50;
+
+    private final ParserFactory factory;
+    private final BlockingQueue<CRFBibReferenceParser> idle = new LinkedBlockingQueue<>();
+    private final List<CRFBibReferenceParser> created = new ArrayList<>();
+    private int maxSize;
+
+    public BibReferenceParserPool(int maxSize, ParserFactory factory) {
+        this.maxSize = Math.max(1, maxSize);
+        this.factory = factory;
+    }
+
+    /**
+     * Pool sized for this machine, using CERMINE's default model.
+     *
+     * @param heapBudgetMb heap the extraction may use; the parsers take at
+     *                     most a quarter of it
+     */
+    public static BibReferenceParserPool createDefault(long heapBudgetMb) {
+        return new BibReferenceParserPool(defaultSize(heapBudgetMb), BibReferenceParserPool::newParser);
+    }
+
+    /** @return up to one parser per spare core, at most 4, within a quarter of the budget */
+    static int defaultSize(long heapBudgetMb) {
+        int cores = Runtime.getRuntime().availableProcessors();
+        long affordable = heapBudgetMb / 4 / ESTIMATED_MB_PER_PARSER;
+        return (int) Math.max(1, Math.min(Math.min(4, cores - 1), affordable));
+    }
+
+    /**
+     * @return a parser with its own copy of CERMINE's default CRF model, or
+     *         CERMINE's shared parser if the model is not on the classpath
+     */
+    public static CRFBibReferenceParser newParser() throws AnalysisException {
+        try (InputStream model = CRFBibReferenceParser.class.getResourceAsStream(MODEL_RESOURCE)) {
+            if (model == null) return CRFBibReferenceParser.getInstance();
+            return new CRFBibReferenceParser(model);
+        } catch (IOException e) {
+            throw new AnalysisException("Cannot read the reference parser model", e);
+        }
+    }
+
+    /** Loads the first parser, so that the first call does not wait for it. */
+    public void warmUp() throws AnalysisException {
+        CRFBibReferenceParser parser = borrow();
+        idle.offer(parser);
+    }
+
+    public BibEntry parse(String reference) throws AnalysisException {
+        CRFBibReferenceParser parser = borrow();
+        try {
+            return parser.parseBibReference(reference);
+        } finally {
+            idle.offer(parser);
+        }
+    }
+
+    /** @return the most parser instances the pool will create */
+    public synchronized int getMaxSize() {
+        return maxSize;
+    }
+
+    /** @return the number of parser instances created so far */
+    public synchronized int size() {
+        return created.size();
+    }
+
+    private CRFBibReferenceParser borrow() throws AnalysisException {
+        CRFBibReferenceParser parser = idle.poll();
+        if (parser != null) return parser;
+
+        parser = grow();
+        if (parser != null) return parser;
+
+        try {
+            return idle.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AnalysisException("Interrupted while waiting for a reference parser", e);
+        }
+    }
+
+    /** @return a new parser for the caller, or null if the pool is full */
+    private synchronized CRFBibReferenceParser grow() throws AnalysisException {
+        if (created.size() >= maxSize) return null;
+
+        CRFBibReferenceParser parser = factory.create();
+        for (CRFBibReferenceParser existing : created) {
+            if (existing == parser) {
+                // Shared instance: never hand it to two threads
+                maxSize = created.size();
+                return null;
+            }
+        }
+        created.add(parser);
+        return parser;
+    }
+}
@@ -0,0 +1,114 @@
+package com.cerca.utils;
+
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+/**
+ * Reduces the DOIs found in references and returned by the databases to one
+ * form, so they can be compared and sent to an API as they are.
+ *
+ * "https://doi.org/10.1038/NATURE14539.", "doi:10.1038/nature14539" and
+ * "http://dx.doi.org/10.1038%2Fnature14539" all become
+ * "10.1038/nature14539": resolver and "doi:" prefixes are dropped, the DOI
+ * ends at the first space, trailing punctuation and unmatched closing
+ * brackets are removed, percent-escapes are decoded and the result is
+ * lowercased, as DOIs are case-insensitive.
+ */
+public class DoiNormalizer {
+
+    /** @return the DOI in canonical form, or null if the text holds no DOI */
+    public static String normalize(String text) {
+        if (text == null) return null;
+
+        String lower = text.toLowerCase(Locale.ROOT);
+        if (lower.indexOf('%') >= 0) {
+            try {
+                lower = URLDecoder.decode(lower.replace("+", "%2B"), StandardCharsets.UTF_8);
+            } catch (IllegalArgumentException e) {
+                // A lone '%' is part of the DOI
+            }
+        }
+
+        int start = findPrefix(lower, 0);
+        while (start >= 0 && !isDoiAt(lower, start)) {
+            start = findPrefix(lower, start + 3);
+        }
+        if (start < 0) return null;
+
+        int end = start;
+        while (end < lower.length() && !Character.isWhitespace(lower.charAt(end))) end++;
+        String doi = stripTrailing(lower.substring(start, end));
+        return isDoiAt(doi, 0) ? doi : null;
+    }
+
+    /** @return true if the text holds a DOI */
+    public static boolean isDoi(String text) {
+        return normalize(text) != null;
+    }
+
+    /**
+     * @return the canonical DOI escaped for use in a URL path; the '/'
+     *         between prefix and suffix is kept
+     */
+    public static String toUrlPath(String doi) {
+        return URLEncoder.encode(doi, StandardCharsets.UTF_8).replace("%2F", "/").replace("+", "%20");
+    }
+
+    private static int findPrefix(String text, int from) {
+        return text.indexOf("10.", from);
+    }
+
+    /** "10." then a registrant code of digits (and dots), a '/' and a suffix. */
+    private static boolean isDoiAt(String text, int start) {
+        if (start > 0 && Character.isLetterOrDigit(text.charAt(start - 1))) return false;
+
+        int i = start + 3;
+        int digits = 0;
+        while (i < text.length() && (isAsciiDigit(text.charAt(i)) || text.charAt(i) == '.')) {
+            if (isAsciiDigit(text.charAt(i))) digits++;
+            i++;
+        }
+        return digits >= 4 && i < text.length() - 1 && text.charAt(i) == '/'
+                && !Character.isWhitespace(text.charAt(i + 1));
+    }
+
+    /** Removes trailing '.', ',', ';', ':', quotes and closing brackets without an opening one. */
+    private static String stripTrailing(String doi) {
+        int end = doi.length();
+        while (end > 0) {
+            char c = doi.charAt(end - 1);
+            if (c == '.' || c == ',' || c == ';' || c == ':' || c == '"' || c == '\'' || c == '”' || c == '’') {
+                end--;
+            } else if ((c == ')' || c == ']' || c == '}' || c == '>')
+                    && count(doi, end, opening(c)) < count(doi, end, c)) {
+                end--;
+            } else {
+                break;
+            }
+        }
+        return doi.substring(0, end);
+    }
+
+    private static char opening(char closing) {
+        switch (closing) {
+            case ')': return '(';
+            case ']': return '[';
+            case '}': return '{';
+            default: return '<';
+        }
+    }
+
+    private static int count(String text, int end, char c) {
+        int n = 0;
+        for (int i = 0; i < end; i++) {
+            if (text.charAt(i) == c) n++;
+        }
+        return n;
+    }
+
+    private static boolean isAsciiDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
@@ -0,0 +1,275 @@
+package com.cerca.utils;
+
+import java.util.Locale;
+
+import com.cerca.model.ReferenceItem;
+
+/**
+ * Finds the identifiers written in a reference's text: DOI, arXiv id, ISBN
+ * and URL.
+ *
+ * CERMINE only reports a DOI it recognised as a field, and pasted references
+ * have none, so references that print their DOI or arXiv id would otherwise
+ * be searched by title. With the identifier found they take the exact
+ * lookups instead: an arXiv id becomes its DataCite DOI (10.48550/arXiv.ID),
+ * and a Zenodo record URL its Zenodo DOI.
+ *
+ * Each scan is a hand-written pass over the text, without regular
+ * expressions, as it runs for every reference extracted or pasted.
+ */
+public class IdentifierScanner {
+
+    /** What a scan found; each field is null when the text has none. */
+    public static class Identifiers {
+        private final String doi;
+        private final String arxivId;
+        private final String isbn;
+        private final String url;
+
+        Identifiers(String doi, String arxivId, String isbn, String url) {
+            this.doi = doi;
+            this.arxivId = arxivId;
+            this.isbn = isbn;
+            this.url = url;
+        }
+
+        /** @return the DOI in canonical form */
+        public String getDoi() {
+            return doi;
+        }
+
+        /** @return the arXiv id without its version, e.g. "1706.03762" or "hep-th/9901001" */
+        public String getArxivId() {
+            return arxivId;
+        }
+
+        /** @return the ISBN digits, without hyphens */
+        public String getIsbn() {
+            return isbn;
+        }
+
+        public String getUrl() {
+            return url;
+        }
+
+        /** @return the DOI printed, or else the one the arXiv id or Zenodo URL stands for */
+        public String getBestDoi() {
+            if (doi != null) return doi;
+            if (arxivId != null) return arxivDoi(arxivId);
+            return zenodoDoi(url);
+        }
+    }
+
+    public static Identifiers scan(String text) {
+        if (text == null || text.isEmpty()) return new Identifiers(null, null, null, null);
+        return new Identifiers(DoiNormalizer.normalize(text), findArxivId(text), findIsbn(text), findUrl(text));
+    }
+
+    /**
+     * Scans the reference's text and records what it finds. A DOI already
+     * extracted is kept; otherwise the best DOI found becomes the reference's
+     * DOI.
+     */
+    public static void apply(ReferenceItem item) {
+        Identifiers ids = scan(item.getRawText());
+        if (DoiNormalizer.normalize(item.getDetectedDoi()) == null) {
+            String doi = ids.getBestDoi();
+            if (doi != null) item.doiProperty().set(doi);
+        }
+        item.setArxivId(ids.getArxivId());
+        item.setIsbn(ids.getIsbn());
+        item.setUrl(ids.getUrl());
+    }
+
+    /** @return the DataCite DOI arXiv registers for an id */
+    public static String arxivDoi(String arxivId) {
+        return DoiNormalizer.normalize("10.48550/arXiv." + arxivId);
+    }
+
+    // --- arXiv ---
+
+    /**
+     * Looks after each "arXiv" (as in "arXiv:1706.03762",
+     * "arxiv.org/abs/1706.03762v5" or "arXiv preprint arXiv:hep-th/9901001")
+     * for a new-style (YYMM.NNNNN) or old-style (archive/YYMMNNN) id.
+     */
+    static String findArxivId(String text) {
+        String lower = text.toLowerCase(Locale.ROOT);
+        int at = lower.indexOf("arxiv");
+        while (at >= 0) {
+            int end = Math.min(lower.length(), at + 48);
+            for (int i = at + 5; i < end; i++) {
+                char before = lower.charAt(i - 1);
+                if (before != ':' && before != '/' && before != ' ' && before != '.') continue;
+
+                String id = newStyleId(lower, i);
+                if (id == null) id = oldStyleId(lower, i);
+                if (id != null) return id;
+            }
+            at = lower.indexOf("arxiv", at + 5);
+        }
+        return null;
+    }
+
+    /** "1706.03762", with an optional version that is dropped. */
+    private static String newStyleId(String s, int start) {
+        int i = start;
+        if (digits(s, i) != 4) return null;
+        int month = (s.charAt(i + 2) - '0') * 10 + (s.charAt(i + 3) - '0');
+        if (month < 1 || month > 12) return null;
+        i += 4;
+        if (i >= s.length() || s.charAt(i) != '.') return null;
+        int n = digits(s, i + 1);
+        if (n != 4 && n != 5) return null;
+        return s.substring(start, i + 1 + n);
+    }
+
+    /** "hep-th/9901001" or "math.gt/0309136". */
+    private static String oldStyleId(String s, int start) {
+        int i = start;
+        while (i < s.length() && ((s.charAt(i) >= 'a' && s.charAt(i) <= 'z') || s.charAt(i) == '-')) i++;
+        if (i == start) return null;
+        if (i + 3 < s.length() && s.charAt(i) == '.' && Character.isLetter(s.charAt(i + 1))
+                && Character.isLetter(s.charAt(i + 2))) {
+            i += 3;
+        }
+        if (i >= s.length() || s.charAt(i) != '/' || digits(s, i + 1) != 7) return null;
+        return s.substring(start, i + 8);
+    }
+
+    // --- ISBN ---
+
+    /** An ISBN-10 or ISBN-13 after an "ISBN" label, or else a bare 978/979 ISBN-13. */
+    static String findIsbn(String text) {
+        String lower = text.toLowerCase(Locale.ROOT);
+        int at = lower.indexOf("isbn");
+        while (at >= 0) {
+            int i = at + 4;
+            // "ISBN-13:", "ISBN 10", "ISBN:"
+            while (i < lower.length() && (lower.charAt(i) == ':' || lower.charAt(i) == ' ' || lower.charAt(i) == '-')) i++;
+            if (lower.startsWith("10", i) || lower.startsWith("13", i)) {
+                int j = i + 2;
+                if (j < lower.length() && (lower.charAt(j) == ':' || lower.charAt(j) == ' ')) {
+                    i = j;
+                    while (i < lower.length() && (lower.charAt(i) == ':' || lower.charAt(i) == ' ')) i++;
+                }
+            }
+            String isbn = isbnAt(lower, i);
+            if (isbn != null) return isbn;
+            at = lower.indexOf("isbn", at + 4);
+        }
+
+        for (int i = lower.indexOf("97"); i >= 0; i = lower.indexOf("97", i + 2)) {
+            if (i > 0 && Character.isLetterOrDigit(lower.charAt(i - 1))) continue;
+            if (i + 2 < lower.length() && (lower.charAt(i + 2) == '8' || lower.charAt(i + 2) == '9')) {
+                String isbn = isbnAt(lower, i);
+                if (isbn != null && isbn.length() == 13) return isbn;
+            }
+        }
+        return null;
+    }
+
+    /** Digits (and a final X) separated by single hyphens or spaces, with a valid check digit. */
+    private static String isbnAt(String s, int start) {
+        StringBuilder digits = new StringBuilder(13);
+        int i = start;
+        while (i < s.length() && digits.length() < 13) {
+            char c = s.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits.append(c);
+            } else if (c == 'x' && digits.length() == 9) {
+                digits.append('X');
+                i++;
+                break;
+            } else if ((c != '-' && c != ' ') || digits.length() == 0 || i + 1 >= s.length()
+                    || !(Character.isDigit(s.charAt(i + 1)) || s.charAt(i + 1) == 'x')) {
+                break;
+            }
+            i++;
+        }
+        if (i < s.length() && Character.isDigit(s.charAt(i))) return null;
+
+        String isbn = digits.toString();
+        if (isbn.length() == 13 && validIsbn13(isbn)) return isbn;
+        if (isbn.length() == 10 && validIsbn10(isbn)) return isbn;
+        return null;
+    }
+
+    private static boolean validIsbn10(String isbn) {
+        int sum = 0;
+        for (int i = 0; i < 10; i++) {
+            char c = isbn.charAt(i);
+            int value = c == 'X' ? 10 : c - '0';
+            sum += value * (10 - i);
+        }
+        return sum % 11 == 0;
+    }
+
+    private static boolean validIsbn13(String isbn) {
+        if (!isbn.startsWith("978") && !isbn.startsWith("979")) return false;
+        int sum = 0;
+        for (int i = 0; i < 13; i++) {
+            sum += (isbn.charAt(i) - '0') * (i % 2 == 0 ? 1 : 3);
+        }
+        return sum % 10 == 0;
+    }
+
+    // --- URL ---
+
+    /** The first http(s) or www. address, without trailing punctuation. */
+    static String findUrl(String text) {
+        String lower = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (String scheme : new String[] { "https://", "http://", "www." }) {
+            int at = lower.indexOf(scheme);
+            if (at >= 0 && (start < 0 || at < start)) start = at;
+        }
+        if (start < 0) return null;
+
+        int end = start;
+        while (end < text.length() && !Character.isWhitespace(text.charAt(end)) && text.charAt(end) != '<'
+                && text.charAt(end) != '>' && text.charAt(end) != '"') {
+            end++;
+        }
+        while (end > start) {
+            char c = text.charAt(end - 1);
+            if (c == '.' || c == ',' || c == ';' || c == ':' || c == '\'' || c == '”' || c == '’'
+                    || (c == ')' && count(text, start, end, '(') < count(text, start, end, ')'))
+                    || (c == ']' && count(text, start, end, '[') < count(text, start, end, ']'))) {
+                end--;
+            } else {
+                break;
+            }
+        }
+        String url = text.substring(start, end);
+        return url.length() > 8 ? url : null;
+    }
+
+    /** "https://zenodo.org/record/1234567" stands for 10.5281/zenodo.1234567. */
+    static String zenodoDoi(String url) {
+        if (url == null) return null;
+        String lower = url.toLowerCase(Locale.ROOT);
+        int at = lower.indexOf("zenodo.org/record");
+        if (at < 0) return null;
+
+        int i = at + "zenodo.org/record".length();
+        if (i < lower.length() && lower.charAt(i) == 's') i++;
+        if (i >= lower.length() || lower.charAt(i) != '/') return null;
+        int n = digits(lower, i + 1);
+        return n == 0 ? null : "10.5281/zenodo." + lower.substring(i + 1, i + 1 + n);
+    }
+
+    private static int digits(String s, int start) {
+        int i = start;
+        while (i < s.length() && s.charAt(i) >= '0' && s.charAt(i) <= '9') i++;
+        return i - start;
+    }
+
+    private static int count(String s, int from, int to, char c) {
+        int n = 0;
+        for (int i = from; i < to; i++) {
+            if (s.charAt(i) == c) n++;
+        }
+        return n;
+    }
+}
@@ -0,0 +1,63 @@
+package com.cerca.utils;
+
+import com.cerca.model.MatchResult;
+import com.cerca.model.ReferenceItem;
+
+import me.xdrop.fuzzywuzzy.FuzzySearch;
+
+/**
+ * Scores a candidate record against a reference. Every provider, from the
+ * local works index to the online databases, scores through here, so the
+ * same record gets the same score whichever source found it.
+ */
+public class MatchScorer {
+
+    /** Author score below which the title alone decides, capped at 50. */
+    public static final int AUTHOR_FLOOR = 50;
+
+    /**
+     * The title counts for 60% and the authors for 40%. If the authors do not
+     * match at all, the score is capped at 50, so a shared title alone is
+     * never a pass.
+     */
+    public static MatchResult score(String source, ReferenceItem item, String dbTitle, String dbAuthors,
+            String dbDoi, int year) {
+        return score(source, item, dbTitle, dbAuthors, dbDoi, year, item.isRawFallback(), AUTHOR_FLOOR);
+    }
+
+    /**
+     * Scores with a provider's own rules: OpenAlex, Zenodo and Semantic
+     * Scholar cap the score below 40 author points rather than 50, and decide
+     * themselves when the raw text stands in for the title.
+     *
+     * @param rawFallback compare the title against the raw reference text
+     * @param authorFloor author score below which the score is capped at 50
+     */
+    public static MatchResult score(String source, ReferenceItem item, String dbTitle, String dbAuthors,
+            String dbDoi, int year, boolean rawFallback, int authorFloor) {
+        int titleScore = titleScore(item, dbTitle, rawFallback);
+        int authorScore = FuzzySearch.tokenSortRatio(dbAuthors == null ? "" : dbAuthors,
+                item.getAuthors() == null ? "" : item.getAuthors());
+
+        int finalScore;
+        if (authorScore < authorFloor) {
+            finalScore = Math.min(titleScore, 50);
+        } else {
+            finalScore = (int) ((titleScore * 0.6) + (authorScore * 0.4));
+        }
+        return new MatchResult(source, dbTitle, dbAuthors, dbDoi, titleScore, authorScore, finalScore, year);
+    }
+
+    /** Compares against the raw text when the parser found no title. */
+    public static int titleScore(ReferenceItem item, String dbTitle) {
+        return titleScore(item, dbTitle, item.isRawFallback());
+    }
+
+    private static int titleScore(ReferenceItem item, String dbTitle, boolean rawFallback) {
+        String folded = TextNormalizer.fold(dbTitle);
+        if (rawFallback) {
+            return FuzzySearch.partialRatio(folded, item.getFoldedRawText());
+        }
+        return FuzzySearch.ratio(folded, item.getFoldedTitle());
+    }
+}
@@ -0,0 +1,136 @@
+package com.cerca.utils;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.cerca.service.LogService;
+
+import pl.edu.icm.cermine.ContentExtractor;
+import pl.edu.icm.cermine.exception.AnalysisException;
+
+/**
+ * Loads CERMINE's models in the background, ahead of the first paste or drop.
+ *
+ * Two things are kept, and they do not share a model:
+ * <ul>
+ * <li>the reference parser pool used by manual entry
+ * ({@link ReferenceParser}), loaded once and kept for the whole session;</li>
+ * <li>one spare {@link ContentExtractor} for PDF extraction. Each document
+ * takes the spare and a new one is loaded for the next document, so the
+ * extraction models are loaded once per document, only ahead of time.</li>
+ * </ul>
+ * {@link #warmUp(LogService, long)} starts both at startup. The parser pool
+ * is loaded first, as it holds the smaller model.
+ */
+public class ModelRegistry {
+
+    private static final ModelRegistry INSTANCE = new ModelRegistry();
+
+    private final ExecutorService loader = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "cerca-models");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private LogService logger;
+    private long heapBudgetMb = Runtime.getRuntime().maxMemory() / (2 * 1024 * 1024);
+    private CompletableFuture<BibReferenceParserPool> bibReferenceParsers;
+    private CompletableFuture<ContentExtractor> spareExtractor;
+
+    private ModelRegistry() {
+    }
+
+    public static ModelRegistry getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Starts loading the models in the background; later calls do nothing.
+     *
+     * @param heapBudgetMb heap the extraction may use; it bounds how many
+     *                     reference parsers are loaded
+     */
+    public synchronized void warmUp(LogService logger, long heapBudgetMb) {
+        this.logger = logger;
+        this.heapBudgetMb = heapBudgetMb;
+        startParser();
+        if (spareExtractor == null) {
+            spareExtractor = CompletableFuture.supplyAsync(() -> newExtractor(true), loader);
+        }
+    }
+
+    /**
+     * @return the shared, thread-safe CRF reference parsers, waiting for the
+     *         first one if it is still loading
+     */
+    public BibReferenceParserPool getBibReferenceParsers() throws AnalysisException {
+        CompletableFuture<BibReferenceParserPool> parsers;
+        synchronized (this) {
+            parsers = startParser();
+        }
+        return join(parsers);
+    }
+
+    /**
+     * Hands out the warmed extractor and starts preparing the next one.
+     * Extractors hold the state of one document, so each is used only once.
+     */
+    public ContentExtractor takeExtractor() throws AnalysisException {
+        CompletableFuture<ContentExtractor> extractor;
+        synchronized (this) {
+            extractor = spareExtractor;
+            spareExtractor = CompletableFuture.supplyAsync(() -> newExtractor(false), loader);
+        }
+        return extractor != null ? join(extractor) : newExtractor(false);
+    }
+
+    private CompletableFuture<BibReferenceParserPool> startParser() {
+        if (bibReferenceParsers == null) {
+            bibReferenceParsers = CompletableFuture.supplyAsync(() -> {
+                long start = System.currentTimeMillis();
+                try {
+                    BibReferenceParserPool pool = BibReferenceParserPool.createDefault(heapBudgetMb);
+                    pool.warmUp();
+                    log(String.format("Reference parser model loaded in %d ms; up to %d parsers, about %d MB each.",
+                            System.currentTimeMillis() - start, pool.getMaxSize(),
+                            BibReferenceParserPool.ESTIMATED_MB_PER_PARSER));
+                    return pool;
+                } catch (AnalysisException e) {
+                    System.err.println("CERMINE Model Error: " + e.getMessage());
+                    throw new CompletionException(e);
+                }
+            }, loader);
+        }
+        return bibReferenceParsers;
+    }
+
+    private ContentExtractor newExtractor(boolean report) {
+        long start = System.currentTimeMillis();
+        try {
+            ContentExtractor extractor = new ContentExtractor();
+            if (report) {
+                log("Extraction models loaded in " + (System.currentTimeMillis() - start) + " ms.");
+            }
+            return extractor;
+        } catch (AnalysisException e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    private static <T> T join(CompletableFuture<T> future) throws AnalysisException {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof AnalysisException) {
+                throw (AnalysisException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private void log(String message) {
+        if (logger != null) logger.log("SYSTEM", message);
+    }
+}
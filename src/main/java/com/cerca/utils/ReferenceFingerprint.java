@@ -0,0 +1,52 @@
+package com.cerca.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Computes a stable fingerprint for a reference so that verdicts from a
+ * previous run can be matched against a revised manuscript.
+ *
+ * The fingerprint is built from the raw reference text (lowercased, with
+ * punctuation and whitespace differences removed) plus the DOI, so cosmetic
+ * re-formatting of the same reference does not count as a change.
+ */
+public class ReferenceFingerprint {
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    public static String of(String rawText, String doi) {
+        StringBuilder sb = new StringBuilder();
+        appendNormalized(sb, rawText);
+        sb.append('|');
+        appendNormalized(sb, doi);
+
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(sb.toString().getBytes(StandardCharsets.UTF_8));
+
+            // 128 bits are plenty to tell references of one document apart
+            char[] out = new char[32];
+            for (int i = 0; i < 16; i++) {
+                out[i * 2] = HEX[(hash[i] >> 4) & 0xF];
+                out[i * 2 + 1] = HEX[hash[i] & 0xF];
+            }
+            return new String(out);
+        } catch (NoSuchAlgorithmException e) {
+            // SHA-256 is mandatory on every Java platform
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /** Keeps only letters and digits, lowercased. */
+    private static void appendNormalized(StringBuilder sb, String text) {
+        if (text == null) return;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                sb.append(Character.toLowerCase(c));
+            }
+        }
+    }
+}
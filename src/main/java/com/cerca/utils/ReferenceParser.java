@@ -3,25 +3,13 @@
  */
 package com.cerca.utils;
 
-import pl.edu.icm.cermine.bibref.CRFBibReferenceParser;
 import pl.edu.icm.cermine.bibref.model.BibEntry;
 import pl.edu.icm.cermine.bibref.model.BibEntryFieldType;
-import pl.edu.icm.cermine.exception.AnalysisException;
 
 import java.util.List;
 
 public class ReferenceParser {
 
-    private static CRFBibReferenceParser parser;
-
-    static {
-        try {
-            parser = CRFBibReferenceParser.getInstance();
-        } catch (AnalysisException e) {
-            System.err.println("CERMINE Model Error: " + e.getMessage());
-        }
-    }
-
     public static class ParsedData {
         public String authors;
         public String title;
@@ -37,13 +25,21 @@ public class ReferenceParser {
             return new ParsedData("Unknown", "Unknown");
         }
 
-        String cleanRef = rawReference.replaceAll("^[\\[\\(]?\\d+[\\]\\)]?[.,:]?\\s*", "").trim();
+        String cleanRef = TextNormalizer.stripNumbering(rawReference);
         String authors = null;
         String title = null;
 
-        if (parser != null) {
+        // Preloaded at startup by the ModelRegistry; safe to use from several threads
+        BibReferenceParserPool parsers = null;
+        try {
+            parsers = ModelRegistry.getInstance().getBibReferenceParsers();
+        } catch (Exception e) {
+            // Model unavailable, proceed to fallback
+        }
+
+        if (parsers != null) {
             try {
-                BibEntry bibEntry = parser.parseBibReference(cleanRef);
+                BibEntry bibEntry = parsers.parse(cleanRef);
                 
                 // --- FIX: USE getAllFieldValues ---
                 List<String> authorList = bibEntry.getAllFieldValues(BibEntryFieldType.AUTHOR);
@@ -68,7 +64,6 @@ public class ReferenceParser {
 
     
     private static String clean(String input) {
-        if (input == null) return "";
-        return input.replaceAll("[.,;]+$", "").trim();
+        return TextNormalizer.stripTrailingPunctuation(input);
     }
 }
\ No newline at end of file
@@ -0,0 +1,148 @@
+package com.cerca.utils;
+
+import java.io.IOException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.text.PDFTextStripper;
+
+/**
+ * Finds the page range of the bibliography in a PDF with a cheap PDFBox text
+ * pass, so that only those pages need to go through CERMINE's layout analysis.
+ *
+ * The section is found by its heading ("References", "Bibliography", ...),
+ * a line on its own, searching from the end of the document, and ends before
+ * a following appendix. Some layouts repeat the heading as a running header
+ * on every page of the section, so the search goes on back through the pages
+ * that carry it and the section starts at the first of them. When there is
+ * no heading, the trailing run of pages dense with numbered citations is used
+ * instead.
+ */
+public class ReferenceSectionLocator {
+
+    /** Documents this short are cheap enough to analyse in full. */
+    private static final int MIN_PAGES = 4;
+
+    private static final Pattern REFERENCES_HEADING = Pattern.compile(
+            "^\\s*(?:[\\dIVX]+(?:\\.\\d+)*\\.?\\s+)?"
+            + "(references|bibliography|works cited|literature cited|references and notes|cited literature"
+            + "|refer[eê]ncias(?: bibliogr[aá]ficas)?|referencias|bibliografia|bibliographie|literatur(?:verzeichnis)?)"
+            + "\\s*:?\\s*$",
+            Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE | Pattern.MULTILINE);
+
+    private static final Pattern APPENDIX_HEADING = Pattern.compile(
+            "^\\s*(appendix|appendices|ap[eê]ndices?|anexos?|annexe?s?|anhang)\\b.{0,80}$",
+            Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE | Pattern.MULTILINE);
+
+    /** "[12] ...", "12. ..." or "12 ..." at the start of a line. */
+    private static final Pattern NUMBERED_CITATION = Pattern.compile(
+            "^\\s*(?:\\[\\d{1,4}\\]|\\d{1,4}\\.)\\s+\\S", Pattern.MULTILINE);
+
+    private static final double MIN_CITATION_DENSITY = 0.15;
+
+    /** An inclusive, 1-based range of pages. */
+    public static class PageRange {
+        public final int first;
+        public final int last;
+
+        public PageRange(int first, int last) {
+            this.first = first;
+            this.last = last;
+        }
+
+        public int size() {
+            return last - first + 1;
+        }
+
+        @Override
+        public String toString() {
+            return first == last ? "page " + first : "pages " + first + "-" + last;
+        }
+    }
+
+    /** Text of one page. */
+    @FunctionalInterface
+    interface PageText {
+        String get(int page) throws IOException;
+    }
+
+    /**
+     * @return the pages holding the reference list, or null when the section
+     *         cannot be told apart from the rest of the document
+     */
+    public static PageRange locate(PDDocument document) throws IOException {
+        PDFTextStripper stripper = new PDFTextStripper();
+        return locate(document.getNumberOfPages(), page -> {
+            stripper.setStartPage(page);
+            stripper.setEndPage(page);
+            return stripper.getText(document);
+        });
+    }
+
+    static PageRange locate(int pageCount, PageText pageText) throws IOException {
+        if (pageCount < MIN_PAGES) return null;
+
+        String[] texts = new String[pageCount + 1];
+
+        // The bibliography is near the end, so most documents stop after a few pages
+        int lastBeforeAppendix = pageCount;
+        for (int page = pageCount; page >= 1; page--) {
+            texts[page] = pageText.get(page);
+
+            if (isReferencesHeading(texts[page])) {
+                // A running header: the section starts on the first page carrying it
+                int first = page;
+                while (first > 1 && isReferencesHeading(pageText.get(first - 1))) first--;
+                return first == 1 && lastBeforeAppendix == pageCount ? null : new PageRange(first, lastBeforeAppendix);
+            }
+            if (isAppendixHeading(texts[page])) {
+                lastBeforeAppendix = page - 1;
+            }
+        }
+
+        return locateByCitationDensity(texts, pageCount);
+    }
+
+    /** Trailing run of pages where many lines start like a numbered citation. */
+    private static PageRange locateByCitationDensity(String[] texts, int pageCount) {
+        int last = -1;
+        int first = -1;
+        for (int page = pageCount; page >= 1; page--) {
+            boolean dense = citationDensity(texts[page]) >= MIN_CITATION_DENSITY;
+            if (dense && last < 0) {
+                last = page;
+            } else if (!dense && last > 0) {
+                break;
+            }
+            if (dense) first = page;
+        }
+
+        if (first < 0 || (first == 1 && last == pageCount)) return null;
+        return new PageRange(first, last);
+    }
+
+    static boolean isReferencesHeading(String pageText) {
+        return pageText != null && REFERENCES_HEADING.matcher(pageText).find();
+    }
+
+    static boolean isAppendixHeading(String pageText) {
+        return pageText != null && APPENDIX_HEADING.matcher(pageText).find();
+    }
+
+    static double citationDensity(String pageText) {
+        if (pageText == null || pageText.isBlank()) return 0;
+
+        int lines = 0;
+        for (String line : pageText.split("\\R")) {
+            if (!line.isBlank()) lines++;
+        }
+        if (lines == 0) return 0;
+
+        int citations = 0;
+        Matcher m = NUMBERED_CITATION.matcher(pageText);
+        while (m.find()) citations++;
+
+        return (double) citations / lines;
+    }
+}
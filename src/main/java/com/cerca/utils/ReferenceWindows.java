@@ -0,0 +1,102 @@
+package com.cerca.utils;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import pl.edu.icm.cermine.bibref.model.BibEntry;
+import pl.edu.icm.cermine.bibref.model.BibEntryFieldType;
+
+/**
+ * Reads a page range in windows and joins the references of consecutive
+ * windows, so a long reference section can be analysed a few pages at a time.
+ *
+ * Consecutive windows share {@value #OVERLAP_PAGES} pages. A reference that
+ * crosses a page break is read whole by at least one of two windows. The
+ * window that cuts it off sees only a piece of it:
+ * <ul>
+ * <li>the last entry of a window may be the start of a reference that goes on
+ * past the window, so it is held back;</li>
+ * <li>the first entries of the next window may be the tail of a reference
+ * that began before it, or references already emitted. The next window is
+ * aligned on the last of its entries that the previous window emitted (its
+ * anchor), and everything up to it is skipped. The held-back entry is then
+ * read again, whole, right after the anchor.</li>
+ * </ul>
+ * When the shared pages hold no complete reference to align on, e.g. one
+ * reference longer than two pages, the held-back entry is emitted and only
+ * exact repeats are skipped, so a cut reference can then appear in pieces.
+ */
+public class ReferenceWindows {
+
+    /** Pages shared by consecutive windows. */
+    public static final int OVERLAP_PAGES = 2;
+
+    /** The smallest window that still moves forward past the shared pages. */
+    public static final int MIN_WINDOW_PAGES = OVERLAP_PAGES + 1;
+
+    /** Runs the reference extraction over a page range. */
+    @FunctionalInterface
+    public interface WindowReader {
+        List<BibEntry> read(int firstPage, int lastPage) throws Exception;
+    }
+
+    /**
+     * @param windowPages pages per window, raised to {@link #MIN_WINDOW_PAGES}
+     * @return the number of references emitted
+     */
+    public static int extract(int firstPage, int lastPage, int windowPages, WindowReader reader,
+            Consumer<BibEntry> onReference) throws Exception {
+        int size = Math.max(MIN_WINDOW_PAGES, windowPages);
+        int count = 0;
+        Set<String> previous = Set.of();
+        BibEntry heldBack = null;
+        int start = firstPage;
+
+        while (true) {
+            int end = Math.min(start + size - 1, lastPage);
+            boolean more = end < lastPage;
+            List<BibEntry> window = reader.read(start, end);
+
+            List<String> fingerprints = new ArrayList<>(window.size());
+            int anchor = -1;
+            for (int i = 0; i < window.size(); i++) {
+                String fingerprint = fingerprint(window.get(i));
+                fingerprints.add(fingerprint);
+                if (previous.contains(fingerprint)) anchor = i;
+            }
+
+            int from = anchor + 1;
+            if (heldBack != null && anchor < 0) {
+                // Nothing to align on: keep the piece rather than lose the reference
+                onReference.accept(heldBack);
+                count++;
+            }
+            heldBack = null;
+
+            int to = window.size();
+            if (more && to - from > 1) {
+                to--;
+                heldBack = window.get(to);
+            }
+
+            Set<String> emitted = new HashSet<>();
+            for (int i = from; i < to; i++) {
+                if (anchor < 0 && previous.contains(fingerprints.get(i))) continue;
+                emitted.add(fingerprints.get(i));
+                onReference.accept(window.get(i));
+                count++;
+            }
+
+            if (!more) return count;
+            previous = emitted;
+            start = end - OVERLAP_PAGES + 1;
+        }
+    }
+
+    private static String fingerprint(BibEntry entry) {
+        return ReferenceFingerprint.of(entry.getText(), entry.getFirstFieldValue(BibEntryFieldType.DOI));
+    }
+}
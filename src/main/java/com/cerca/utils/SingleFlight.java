@@ -0,0 +1,72 @@
+package com.cerca.utils;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Runs identical lookups once when they overlap.
+ *
+ * The first caller for a key runs the call; callers arriving with the same
+ * key while it is in flight wait for it and share its result, or its
+ * exception, instead of sending the same request again. Once the call
+ * returns the key is forgotten, so later callers run it afresh: this
+ * coalesces concurrent requests and caches nothing.
+ *
+ * @param <K> the lookup key, e.g. a provider URL
+ * @param <V> the shared result
+ */
+public class SingleFlight<K, V> {
+
+    /** A lookup that may fail or be interrupted. */
+    @FunctionalInterface
+    public interface Call<V> {
+        V call() throws Exception;
+    }
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * @return the result of the call, run by this thread or by another one
+     *         that asked for the same key first
+     * @throws InterruptedException if this thread is interrupted, while
+     *                              running the call or waiting for it
+     */
+    public V run(K key, Call<V> call) throws Exception {
+        while (true) {
+            CompletableFuture<V> mine = new CompletableFuture<>();
+            CompletableFuture<V> leader = inFlight.putIfAbsent(key, mine);
+            if (leader == null) {
+                return lead(key, mine, call);
+            }
+
+            try {
+                return leader.get();
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                // The leader was cancelled, not this caller: run the call again
+                if (cause instanceof InterruptedException) continue;
+                if (cause instanceof Exception) throw (Exception) cause;
+                throw new IllegalStateException(cause);
+            }
+        }
+    }
+
+    /** @return the number of keys with a call in flight */
+    public int size() {
+        return inFlight.size();
+    }
+
+    private V lead(K key, CompletableFuture<V> mine, Call<V> call) throws Exception {
+        try {
+            V result = call.call();
+            mine.complete(result);
+            return result;
+        } catch (Exception | Error e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.cerca.utils;
+
+import java.text.Normalizer;
+
+/**
+ * Text cleaning shared by the parser, the providers and the exporters.
+ *
+ * These run for every reference and every provider call, so they are written
+ * as single-pass character loops instead of {@code String.replaceAll}, which
+ * compiles a new regular expression on every call.
+ */
+public class TextNormalizer {
+
+    /**
+     * Removes a leading reference number such as "[12]", "(3)", "12." or "4:"
+     * and the whitespace after it. A leading number directly followed by a
+     * letter ("3D", "5G") is kept.
+     */
+    public static String stripNumbering(String text) {
+        if (text == null) return "";
+
+        int i = 0;
+        int n = text.length();
+        while (i < n && Character.isWhitespace(text.charAt(i))) i++;
+
+        int start = i;
+        if (i < n && (text.charAt(i) == '[' || text.charAt(i) == '(')) i++;
+
+        int digits = i;
+        while (i < n && isAsciiDigit(text.charAt(i))) i++;
+        if (i == digits) return text.trim(); // no number, nothing to strip
+
+        if (i < n && (text.charAt(i) == ']' || text.charAt(i) == ')')) i++;
+        if (i < n && (text.charAt(i) == '.' || text.charAt(i) == ',' || text.charAt(i) == ':')) i++;
+
+        // A number run into a word, as in "3D printing", is part of the text. A
+        // bare number followed by a space, as in "2020 study...", cannot be told
+        // from a reference number and is stripped.
+        if (i < n && !Character.isWhitespace(text.charAt(i)) && i > start && isAsciiDigit(text.charAt(i - 1))) {
+            return text.trim();
+        }
+        return text.substring(i).trim();
+    }
+
+    /** Removes trailing '.', ',' and ';' characters, then surrounding whitespace. */
+    public static String stripTrailingPunctuation(String text) {
+        if (text == null) return "";
+
+        int end = text.length();
+        while (end > 0 && (text.charAt(end - 1) == '.' || text.charAt(end - 1) == ','
+                || text.charAt(end - 1) == ';')) {
+            end--;
+        }
+        return text.substring(0, end).trim();
+    }
+
+    /**
+     * Lowercases and removes diacritics, so "Yetiştiren" and "Yetistiren"
+     * compare equal. Plain ASCII text takes a fast path.
+     */
+    public static String fold(String text) {
+        if (text == null) return "";
+
+        boolean ascii = true;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) >= 0x80) {
+                ascii = false;
+                break;
+            }
+        }
+        if (ascii) return toLowerAscii(text);
+
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        StringBuilder sb = new StringBuilder(decomposed.length());
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) continue;
+
+            // Letters that do not decompose into base letter + accent
+            switch (c) {
+                case 'ß': sb.append("ss"); break;
+                case 'æ': case 'Æ': sb.append("ae"); break;
+                case 'œ': case 'Œ': sb.append("oe"); break;
+                case 'ø': case 'Ø': sb.append('o'); break;
+                case 'ł': case 'Ł': sb.append('l'); break;
+                case 'đ': case 'Đ': sb.append('d'); break;
+                case 'ı': sb.append('i'); break;
+                default: sb.append(Character.toLowerCase(c));
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Folds the text and keeps only letters and digits, separated by single
+     * spaces. Used for search queries and keys.
+     */
+    public static String toQuery(String text) {
+        String folded = fold(text);
+        StringBuilder sb = new StringBuilder(folded.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < folded.length(); i++) {
+            char c = folded.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                if (pendingSpace && sb.length() > 0) sb.append(' ');
+                sb.append(c);
+                pendingSpace = false;
+            } else {
+                pendingSpace = true;
+            }
+        }
+        return sb.toString();
+    }
+
+    private static String toLowerAscii(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c >= 'A' && c <= 'Z') {
+                char[] chars = text.toCharArray();
+                for (int j = i; j < chars.length; j++) {
+                    if (chars[j] >= 'A' && chars[j] <= 'Z') chars[j] += 'a' - 'A';
+                }
+                return new String(chars);
+            }
+        }
+        return text;
+    }
+
+    private static boolean isAsciiDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
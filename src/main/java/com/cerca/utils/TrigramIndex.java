@@ -0,0 +1,302 @@
+package com.cerca.utils;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Finds the titles that look like a given title, without comparing it to
+ * every title known.
+ *
+ * Each title is reduced with {@link TextNormalizer#toQuery} and split into
+ * character trigrams; the index keeps, for each trigram, the sorted ids of
+ * the titles containing it. A lookup returns the ids whose Dice similarity
+ * over trigrams reaches a threshold, best first. The posting lists of the
+ * query's trigrams are counted into a per-thread array, except those of
+ * trigrams found in more than a tenth of the titles, such as "the" or "ing";
+ * those are only probed, by binary search, for the few titles that can still
+ * reach the threshold; a title sharing nothing but such trigrams with the
+ * query is not returned. The short list returned is then ranked by the usual
+ * title and author scoring.
+ *
+ * An index is either built in memory with {@link #add}, or written with
+ * {@link #write} and mapped read-only with {@link #map}, so large indexes
+ * stay out of the heap. Not thread-safe: callers that add while others
+ * look up must lock.
+ */
+public class TrigramIndex {
+
+    private static final int MAGIC = 0x43524749; // "CRGI"
+    private static final int VERSION = 1;
+
+    /** Posting lists up to this long are always counted, however small the index. */
+    private static final int MIN_SCAN = 256;
+
+    /** Shared-trigram counts per id, and the ids counted, reused by each thread's lookups. */
+    private static final ThreadLocal<int[][]> SCRATCH = ThreadLocal
+            .withInitial(() -> new int[][] { new int[0], new int[64] });
+
+    // Built in memory
+    private final Map<Integer, int[]> lists;
+    private final Map<Integer, Integer> listSizes;
+    private int[] gramCounts;
+    private int size;
+
+    // Mapped from a file: grams sorted, starts[i]..starts[i+1] in postings
+    private final IntBuffer grams;
+    private final IntBuffer starts;
+    private final IntBuffer mappedCounts;
+    private final IntBuffer postings;
+
+    public TrigramIndex() {
+        this.lists = new HashMap<>();
+        this.listSizes = new HashMap<>();
+        this.gramCounts = new int[1024];
+        this.grams = null;
+        this.starts = null;
+        this.mappedCounts = null;
+        this.postings = null;
+    }
+
+    private TrigramIndex(IntBuffer grams, IntBuffer starts, IntBuffer counts, IntBuffer postings) {
+        this.lists = null;
+        this.listSizes = null;
+        this.grams = grams;
+        this.starts = starts;
+        this.mappedCounts = counts;
+        this.postings = postings;
+        this.size = counts.limit();
+    }
+
+    /** @return the number of ids in the index */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Indexes a title. Ids must be added in increasing order, starting at 0;
+     * an id may not be added twice.
+     */
+    public void add(int id, String title) {
+        if (lists == null) throw new IllegalStateException("A mapped trigram index is read-only");
+        if (id < size) throw new IllegalArgumentException("Ids must increase: " + id);
+
+        int[] ids = trigrams(title);
+        if (id >= gramCounts.length) gramCounts = Arrays.copyOf(gramCounts, Math.max(id + 1, gramCounts.length * 2));
+        gramCounts[id] = ids.length;
+        size = id + 1;
+
+        for (int gram : ids) {
+            int n = listSizes.getOrDefault(gram, 0);
+            int[] list = lists.get(gram);
+            if (list == null) {
+                list = new int[4];
+                lists.put(gram, list);
+            } else if (n == list.length) {
+                list = Arrays.copyOf(list, n * 2);
+                lists.put(gram, list);
+            }
+            list[n] = id;
+            listSizes.put(gram, n + 1);
+        }
+    }
+
+    /**
+     * @param minSimilarity the Dice similarity over trigrams a title needs,
+     *                      between 0 and 1
+     * @return up to {@code limit} ids, most similar first
+     */
+    public int[] candidates(String title, int limit, double minSimilarity) {
+        int[] query = trigrams(title);
+        int qn = query.length;
+        if (qn == 0 || size == 0) return new int[0];
+
+        List<IntBuffer> found = new ArrayList<>(qn);
+        for (int gram : query) {
+            found.add(postingsOf(gram));
+        }
+        found.sort((a, b) -> Integer.compare(a.remaining(), b.remaining()));
+
+        // Dice = 2s / (qn + tn) with tn >= s, so a match shares at least this many trigrams
+        double t = Math.max(minSimilarity, 0.01);
+        int minShared = Math.max(1, (int) Math.ceil(t * qn / (2 - t)));
+
+        // Counting the most common lists would touch most of the index; they are probed instead
+        int maxScan = Math.max(MIN_SCAN, size / 10);
+        int scanned = 1;
+        while (scanned < qn && found.get(scanned).remaining() <= maxScan) scanned++;
+        int probed = qn - scanned;
+        int needed = Math.max(1, minShared - probed);
+
+        int[][] scratch = SCRATCH.get();
+        if (scratch[0].length < size) scratch[0] = new int[Math.max(size, scratch[0].length * 2)];
+        int[] counts = scratch[0];
+        int[] touched = scratch[1];
+        int touchedCount = 0;
+        for (int i = 0; i < scanned; i++) {
+            IntBuffer list = found.get(i);
+            for (int j = list.position(); j < list.limit(); j++) {
+                int id = list.get(j);
+                if (counts[id]++ == 0) {
+                    if (touchedCount == touched.length) scratch[1] = touched = Arrays.copyOf(touched, touchedCount * 2);
+                    touched[touchedCount++] = id;
+                }
+            }
+        }
+
+        int[] candidates = new int[touchedCount];
+        int[] shared = new int[touchedCount];
+        int n = 0;
+        for (int k = 0; k < touchedCount; k++) {
+            int id = touched[k];
+            // Dice >= t needs 2s >= t * (qn + tn); the probed lists add at most one each
+            if (counts[id] >= needed && 2 * (counts[id] + probed) >= t * (qn + gramCount(id))) {
+                candidates[n] = id;
+                shared[n++] = counts[id];
+            }
+            counts[id] = 0;
+        }
+
+        for (int i = scanned; i < qn; i++) {
+            IntBuffer list = found.get(i);
+            for (int k = 0; k < n; k++) {
+                if (contains(list, candidates[k])) shared[k]++;
+            }
+        }
+
+        List<double[]> ranked = new ArrayList<>();
+        for (int k = 0; k < n; k++) {
+            double dice = 2.0 * shared[k] / (qn + gramCount(candidates[k]));
+            if (dice >= minSimilarity) ranked.add(new double[] { dice, candidates[k] });
+        }
+        ranked.sort((a, b) -> a[0] != b[0] ? Double.compare(b[0], a[0]) : Double.compare(a[1], b[1]));
+
+        int[] ids = new int[Math.min(limit, ranked.size())];
+        for (int k = 0; k < ids.length; k++) {
+            ids[k] = (int) ranked.get(k)[1];
+        }
+        return ids;
+    }
+
+    /** Writes the index in the layout {@link #map} reads. */
+    public void write(Path file) throws IOException {
+        if (lists == null) throw new IllegalStateException("A mapped trigram index is already on disk");
+
+        int[] sortedGrams = lists.keySet().stream().mapToInt(Integer::intValue).sorted().toArray();
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(file), 64 * 1024))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(sortedGrams.length);
+            out.writeInt(size);
+            for (int gram : sortedGrams) {
+                out.writeInt(gram);
+            }
+            int start = 0;
+            out.writeInt(start);
+            for (int gram : sortedGrams) {
+                start += listSizes.get(gram);
+                out.writeInt(start);
+            }
+            for (int id = 0; id < size; id++) {
+                out.writeInt(gramCounts[id]);
+            }
+            for (int gram : sortedGrams) {
+                int[] list = lists.get(gram);
+                int n = listSizes.get(gram);
+                for (int i = 0; i < n; i++) {
+                    out.writeInt(list[i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Maps an index written by {@link #write}. The file stays mapped until the
+     * index is garbage collected, and some systems (Windows) refuse to replace
+     * or delete it until then.
+     */
+    public static TrigramIndex map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            IntBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()).asIntBuffer();
+            if (in.remaining() < 4 || in.get(0) != MAGIC || in.get(1) != VERSION) {
+                throw new IOException("Not a trigram index: " + file);
+            }
+            int gramTotal = in.get(2);
+            int idTotal = in.get(3);
+
+            int at = 4;
+            IntBuffer grams = slice(in, at, gramTotal);
+            at += gramTotal;
+            IntBuffer starts = slice(in, at, gramTotal + 1);
+            at += gramTotal + 1;
+            IntBuffer counts = slice(in, at, idTotal);
+            at += idTotal;
+            IntBuffer postings = slice(in, at, in.limit() - at);
+            return new TrigramIndex(grams, starts, counts, postings);
+        }
+    }
+
+    /** @return the distinct trigrams of the normalized title, padded with a space at each end */
+    static int[] trigrams(String title) {
+        String q = TextNormalizer.toQuery(title);
+        if (q.isEmpty()) return new int[0];
+
+        String padded = " " + q + " ";
+        int[] grams = new int[Math.max(0, padded.length() - 2)];
+        for (int i = 0; i < grams.length; i++) {
+            grams[i] = (padded.charAt(i) * 65599 + padded.charAt(i + 1)) * 65599 + padded.charAt(i + 2);
+        }
+        return Arrays.stream(grams).distinct().toArray();
+    }
+
+    private IntBuffer postingsOf(int gram) {
+        if (lists != null) {
+            int[] list = lists.get(gram);
+            return list == null ? IntBuffer.allocate(0) : IntBuffer.wrap(list, 0, listSizes.get(gram));
+        }
+
+        int i = binarySearch(grams, 0, grams.limit(), gram);
+        if (i < 0) return IntBuffer.allocate(0);
+        IntBuffer view = postings.duplicate();
+        view.limit(starts.get(i + 1)).position(starts.get(i));
+        return view;
+    }
+
+    private int gramCount(int id) {
+        return lists != null ? gramCounts[id] : mappedCounts.get(id);
+    }
+
+    private static boolean contains(IntBuffer list, int id) {
+        return binarySearch(list, list.position(), list.limit(), id) >= 0;
+    }
+
+    private static int binarySearch(IntBuffer buffer, int from, int to, int key) {
+        int lo = from;
+        int hi = to - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int value = buffer.get(mid);
+            if (value < key) lo = mid + 1;
+            else if (value > key) hi = mid - 1;
+            else return mid;
+        }
+        return -1;
+    }
+
+    private static IntBuffer slice(IntBuffer in, int at, int length) {
+        IntBuffer view = in.duplicate();
+        view.position(at).limit(at + length);
+        return view.slice();
+    }
+}
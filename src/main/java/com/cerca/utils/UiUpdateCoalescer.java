@@ -0,0 +1,82 @@
+package com.cerca.utils;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
+
+/**
+ * Collects UI updates from worker threads and applies them once per JavaFX
+ * pulse (about 60 times a second), instead of posting one
+ * {@link Platform#runLater(Runnable)} per change.
+ *
+ * Updates run in the order they were posted. Each pulse applies as many as
+ * fit in a few milliseconds, so a burst of results never stalls a frame. The
+ * timer only runs while there is work, and stops after a short idle period.
+ */
+public class UiUpdateCoalescer {
+
+    /** Time spent applying updates per pulse, leaving the rest of the frame for layout. */
+    private static final long PULSE_BUDGET_NANOS = 8_000_000L;
+
+    /** Pulses without work before the timer stops. */
+    private static final int IDLE_PULSES = 30;
+
+    private final ConcurrentLinkedQueue<Runnable> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean running = new AtomicBoolean();
+    private int idlePulses;
+
+    private final AnimationTimer timer = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            drain();
+        }
+    };
+
+    /** Queues an update to be applied on the JavaFX thread. Safe from any thread. */
+    public void post(Runnable update) {
+        pending.add(update);
+        if (running.compareAndSet(false, true)) {
+            Platform.runLater(timer::start);
+        }
+    }
+
+    /**
+     * Runs the action on the JavaFX thread after every update posted before
+     * it has been applied. Use this instead of {@link #post(Runnable)} for
+     * work that may block the pulse, such as showing a dialog.
+     */
+    public void postLater(Runnable action) {
+        post(() -> Platform.runLater(action));
+    }
+
+    private void drain() {
+        long deadline = System.nanoTime() + PULSE_BUDGET_NANOS;
+        int applied = 0;
+
+        Runnable update;
+        while ((update = pending.poll()) != null) {
+            try {
+                update.run();
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+            applied++;
+            if (System.nanoTime() >= deadline) break;
+        }
+
+        if (applied > 0) {
+            idlePulses = 0;
+        } else if (++idlePulses >= IDLE_PULSES) {
+            idlePulses = 0;
+            timer.stop();
+            running.set(false);
+
+            // An update may have arrived after the last poll but before the flag was cleared
+            if (!pending.isEmpty() && running.compareAndSet(false, true)) {
+                timer.start();
+            }
+        }
+    }
+}
@@ -2,11 +2,20 @@ package com.cerca.view;
 
 import java.awt.Desktop;
 import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 import java.util.function.Consumer;
 
+import com.cerca.model.ReferenceFilter;
+import com.cerca.model.ReferenceFilter.StatusFilter;
 import com.cerca.model.ReferenceItem;
 
+import javafx.animation.PauseTransition;
+import javafx.beans.InvalidationListener;
+import javafx.collections.ObservableList;
+import javafx.collections.transformation.FilteredList;
+import javafx.collections.transformation.SortedList;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Parent;
@@ -15,6 +24,8 @@ import javafx.scene.control.Alert.AlertType;
 import javafx.scene.control.Button;
 import javafx.scene.control.ButtonBar.ButtonData;
 import javafx.scene.control.ButtonType;
+import javafx.scene.control.CheckMenuItem;
+import javafx.scene.control.ComboBox;
 import javafx.scene.control.ContextMenu;
 import javafx.scene.control.Dialog;
 import javafx.scene.control.Hyperlink;
@@ -25,13 +36,16 @@ import javafx.scene.control.MenuItem;
 import javafx.scene.control.ProgressBar;
 import javafx.scene.control.SelectionMode;
 import javafx.scene.control.SeparatorMenuItem;
+import javafx.scene.control.Spinner;
 import javafx.scene.control.TableCell;
 import javafx.scene.control.TableColumn;
 import javafx.scene.control.TablePosition;
 import javafx.scene.control.TableRow;
 import javafx.scene.control.TableView;
 import javafx.scene.control.TextArea;
+import javafx.scene.control.TextField;
 import javafx.scene.control.cell.CheckBoxTableCell;
+import javafx.scene.control.skin.VirtualFlow;
 import javafx.scene.input.Clipboard;
 import javafx.scene.input.ClipboardContent;
 import javafx.scene.input.KeyCode;
@@ -44,6 +58,7 @@ import javafx.scene.layout.VBox;
 import javafx.scene.paint.Color;
 import javafx.scene.text.Font;
 import javafx.scene.text.FontWeight;
+import javafx.util.Duration;
 
 /**
  * JavaFX controller for the main CERCA user interface.
@@ -52,23 +67,44 @@ import javafx.scene.text.FontWeight;
  */
 public class MainView {
 
+	/** Row height; a fixed size lets the table skip measuring every row. */
+	private static final double ROW_HEIGHT = 24;
+	private static final Font STATUS_FONT = Font.font("System", FontWeight.BOLD, 12);
+
 	private final BorderPane layout;
 	private final TableView<ReferenceItem> table;
 	private final Button verifyButton;
 	private final ProgressBar progressBar;
 	private final Label statusLabel;
 	private final Button saveButton;
+	private final Button pauseButton;
+	private final Button cancelButton;
 	private final MenuItem aboutItem;
 	private final MenuItem sponsorItem;
 	private final MenuItem contributeItem;
 	private final MenuItem licenseItem;
 	private final MenuItem emailItem;
+	private final CheckMenuItem verifyWhileExtractingItem;
+	private final CheckMenuItem offlineModeItem;
+	private final MenuItem importCatalogItem;
+	private final MenuItem saveSessionItem;
+	private final MenuItem openSessionItem;
+	private final MenuItem restoreSessionItem;
 	private VBox resultsDashboard;
 	private Label totalBadge;
 	private Label passedBadge;
 	private Label failedBadge;
 	private Label rateBadge;
 	private final Button pasteButton;
+	private TextField searchField;
+	private ComboBox<StatusFilter> statusFilterBox;
+	private Spinner<Integer> minScoreSpinner;
+	private Spinner<Integer> maxScoreSpinner;
+	private Label filterCountLabel;
+	private FilteredList<ReferenceItem> filteredReferences;
+
+	/** Waits for a pause in typing before filtering. */
+	private final PauseTransition filterDelay = new PauseTransition(Duration.millis(150));
 
 	public Button getSaveButton() {
 		return saveButton;
@@ -145,10 +181,16 @@ public class MainView {
 		saveButton.setVisible(false);
 		saveButton.setManaged(false);
 
+		pauseButton = new Button("⏸ Pause");
+		pauseButton.setStyle("-fx-font-size: 14px; -fx-padding: 8 20 8 20;");
+		cancelButton = new Button("⏹ Cancel");
+		cancelButton.setStyle("-fx-font-size: 14px; -fx-padding: 8 20 8 20;");
+		setVerificationControlsVisible(false);
+
 		Region spacer = new Region();
 		HBox.setHgrow(spacer, Priority.ALWAYS);
 
-		HBox bottomBar = new HBox(10, statusLabel, spacer, saveButton, verifyButton);
+		HBox bottomBar = new HBox(10, statusLabel, spacer, saveButton, pauseButton, cancelButton, verifyButton);
 		bottomBar.setAlignment(Pos.CENTER_LEFT);
 		bottomBar.setPadding(new Insets(10));
 
@@ -165,18 +207,29 @@ public class MainView {
 		Menu settingsMenu = new Menu("Settings");
 		setPreferencesItem(new MenuItem("⚙ API Key..."));
 		emailItem = (new MenuItem("📧 Email...")); 
+		verifyWhileExtractingItem = new CheckMenuItem("⚡ Verify While Extracting");
+		offlineModeItem = new CheckMenuItem("✈ Offline Mode");
+		importCatalogItem = new MenuItem("📚 Import Metadata Dump...");
 		
 		
 		// Add the item to the menu
-		settingsMenu.getItems().addAll(getPreferencesItem(), emailItem);
+		settingsMenu.getItems().addAll(getPreferencesItem(), emailItem, new SeparatorMenuItem(),
+				verifyWhileExtractingItem, new SeparatorMenuItem(), offlineModeItem, importCatalogItem);
 
-		menuBar.getMenus().addAll(settingsMenu, helpMenu);
+		Menu sessionMenu = new Menu("Session");
+		saveSessionItem = new MenuItem("💾 Save Session...");
+		openSessionItem = new MenuItem("📂 Open Session...");
+		restoreSessionItem = new MenuItem("↩ Restore Last Session");
+		sessionMenu.getItems().addAll(saveSessionItem, openSessionItem, new SeparatorMenuItem(), restoreSessionItem);
+
+		menuBar.getMenus().addAll(sessionMenu, settingsMenu, helpMenu);
 
 		VBox combinedTop = new VBox(menuBar, topWrapper);
 
 		layout.setTop(combinedTop);
 
-		layout.setCenter(table);
+		VBox.setVgrow(table, Priority.ALWAYS);
+		layout.setCenter(new VBox(createFilterBar(), table));
 		layout.setBottom(bottomBar);
 
 		table.getSelectionModel().setCellSelectionEnabled(true);
@@ -248,18 +301,22 @@ public class MainView {
 		TableColumn<ReferenceItem, String> statusCol = new TableColumn<>("Status");
 		statusCol.setCellValueFactory(cell -> cell.getValue().statusProperty());
 		statusCol.setPrefWidth(100);
-		// Custom Color Renderer
+		// Custom Color Renderer: the text colour follows the row's status colour
 		statusCol.setCellFactory(col -> new TableCell<>() {
+			{
+				setFont(STATUS_FONT);
+			}
+
 			@Override
 			protected void updateItem(String item, boolean empty) {
 				super.updateItem(item, empty);
-				if (empty || item == null) {
+				textFillProperty().unbind();
+				ReferenceItem row = getTableRow() == null ? null : getTableRow().getItem();
+				if (empty || item == null || row == null) {
 					setText(null);
 				} else {
 					setText(item);
-					ReferenceItem row = getTableView().getItems().get(getIndex());
-					setTextFill(row.statusColorProperty().get());
-					setFont(Font.font("System", FontWeight.BOLD, 12));
+					textFillProperty().bind(row.statusColorProperty());
 				}
 			}
 		});
@@ -283,16 +340,16 @@ public class MainView {
 				super.updateItem(item, empty);
 				if (empty || item == null) {
 					setText(null);
-					setStyle(""); // Reset style
 				} else {
-					setText(item.intValue() + "%");
+					int score = item.intValue();
+					setText(score + "%");
 
-					if (item.intValue() == 100) {
-						setTextFill(javafx.scene.paint.Color.GREEN);
-					} else if (item.intValue() < 50) {
-						setTextFill(javafx.scene.paint.Color.RED);
+					if (score == 100) {
+						setTextFill(Color.GREEN);
+					} else if (score < 50) {
+						setTextFill(Color.RED);
 					} else {
-						setTextFill(javafx.scene.paint.Color.BLACK);
+						setTextFill(Color.BLACK);
 					}
 				}
 			}
@@ -304,8 +361,26 @@ public class MainView {
 		doiCol.setPrefWidth(120);
 
 		doiCol.setCellFactory(col -> new TableCell<ReferenceItem, String>() {
+			// Configured once per cell; cells are reused as the table scrolls
 			private final Hyperlink link = new Hyperlink();
 
+			{
+				link.setStyle("-fx-text-fill: blue; -fx-underline: true;");
+				link.setOnAction(e -> {
+					try {
+
+						String cleanDoi = getItem().trim();
+
+						String url = cleanDoi.startsWith("http") ? cleanDoi : "https://doi.org/" + cleanDoi;
+
+						openUrl(url);
+
+					} catch (Exception ex) {
+						System.err.println("Could not open browser: " + ex.getMessage());
+					}
+				});
+			}
+
 			@Override
 			protected void updateItem(String doiText, boolean empty) {
 				super.updateItem(doiText, empty);
@@ -314,21 +389,6 @@ public class MainView {
 					setGraphic(null);
 				} else {
 					link.setText(doiText);
-					link.setStyle("-fx-text-fill: blue; -fx-underline: true;");
-
-					link.setOnAction(e -> {
-						try {
-
-							String cleanDoi = doiText.trim();
-
-							String url = cleanDoi.startsWith("http") ? cleanDoi : "https://doi.org/" + cleanDoi;
-
-							openUrl(url);
-
-						} catch (Exception ex) {
-							System.err.println("Could not open browser: " + ex.getMessage());
-						}
-					});
 					setGraphic(link);
 				}
 			}
@@ -375,6 +435,7 @@ public class MainView {
 		table.getColumns().addAll(idCol, verifiedCol, statusCol, matchCol, authorCol, crAuthorCol, titleCol, crTitleCol,
 				doiCol);
 		table.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY);
+		table.setFixedCellSize(ROW_HEIGHT);
 		table.setEditable(true);
 
 	}
@@ -472,6 +533,56 @@ public class MainView {
 		return resultsDashboard;
 	}
 
+	/**
+	 * Search box, status choice and score range above the table.
+	 */
+	private HBox createFilterBar() {
+		searchField = new TextField();
+		searchField.setPromptText("🔎 Search titles and authors");
+		HBox.setHgrow(searchField, Priority.ALWAYS);
+
+		statusFilterBox = new ComboBox<>();
+		statusFilterBox.getItems().addAll(StatusFilter.values());
+		statusFilterBox.setValue(StatusFilter.ALL);
+
+		minScoreSpinner = new Spinner<>(0, 100, 0, 5);
+		maxScoreSpinner = new Spinner<>(0, 100, 100, 5);
+		minScoreSpinner.setPrefWidth(75);
+		maxScoreSpinner.setPrefWidth(75);
+		minScoreSpinner.setEditable(true);
+		maxScoreSpinner.setEditable(true);
+
+		filterCountLabel = new Label();
+		filterCountLabel.setTextFill(Color.DIMGRAY);
+
+		filterDelay.setOnFinished(e -> applyFilter());
+		searchField.textProperty().addListener((obs, oldText, newText) -> filterDelay.playFromStart());
+		statusFilterBox.valueProperty().addListener((obs, oldValue, newValue) -> applyFilter());
+		minScoreSpinner.valueProperty().addListener((obs, oldValue, newValue) -> filterDelay.playFromStart());
+		maxScoreSpinner.valueProperty().addListener((obs, oldValue, newValue) -> filterDelay.playFromStart());
+
+		HBox filterBar = new HBox(8, searchField, statusFilterBox, new Label("Score"), minScoreSpinner,
+				new Label("to"), maxScoreSpinner, filterCountLabel);
+		filterBar.setAlignment(Pos.CENTER_LEFT);
+		filterBar.setPadding(new Insets(0, 8, 5, 8));
+		return filterBar;
+	}
+
+	private void applyFilter() {
+		if (filteredReferences == null)
+			return;
+
+		ReferenceFilter filter = new ReferenceFilter(searchField.getText(), statusFilterBox.getValue(),
+				minScoreSpinner.getValue(), maxScoreSpinner.getValue());
+		filteredReferences.setPredicate(filter.isEmpty() ? null : filter);
+	}
+
+	private void updateFilterCount() {
+		int shown = filteredReferences.size();
+		int total = filteredReferences.getSource().size();
+		filterCountLabel.setText(shown == total ? "" : shown + " of " + total);
+	}
+
 	/**
 	 * Helper for styling badges
 	 */
@@ -518,6 +629,88 @@ public class MainView {
 		return verifyButton;
 	}
 
+	/**
+	 * Shows the references in the table. Filtering and sorting by a column
+	 * header work on views of the list, so the list itself keeps its order and
+	 * is not copied. For the filter to follow verification, the list should be
+	 * created with an extractor on the status and score properties.
+	 */
+	public void setReferences(ObservableList<ReferenceItem> references) {
+		filteredReferences = new FilteredList<>(references);
+		filteredReferences.addListener((InvalidationListener) obs -> updateFilterCount());
+		applyFilter();
+
+		SortedList<ReferenceItem> sorted = new SortedList<>(filteredReferences);
+		sorted.comparatorProperty().bind(table.comparatorProperty());
+		table.setItems(sorted);
+	}
+
+	/** @return the references in the table rows currently on screen */
+	public List<ReferenceItem> getVisibleItems() {
+		List<ReferenceItem> visible = new ArrayList<>();
+		if (!(table.lookup(".virtual-flow") instanceof VirtualFlow<?> flow) || flow.getFirstVisibleCell() == null)
+			return visible;
+
+		List<ReferenceItem> items = table.getItems();
+		int first = Math.max(0, flow.getFirstVisibleCell().getIndex());
+		int last = Math.min(items.size() - 1, flow.getLastVisibleCell().getIndex());
+		for (int i = first; i <= last; i++) {
+			visible.add(items.get(i));
+		}
+		return visible;
+	}
+
+	/**
+	 * Runs the action whenever the rows on screen may have changed: on scroll,
+	 * resize, or when rows are added or removed.
+	 */
+	public void setOnVisibleRowsChanged(Runnable action) {
+		InvalidationListener listener = obs -> action.run();
+		table.heightProperty().addListener(listener);
+		table.getItems().addListener(listener);
+
+		// The scroll position lives in the VirtualFlow, which exists once the skin is created
+		Runnable hookFlow = () -> {
+			if (table.lookup(".virtual-flow") instanceof VirtualFlow<?> flow) {
+				flow.positionProperty().addListener(listener);
+			}
+		};
+		if (table.getSkin() != null) {
+			hookFlow.run();
+		} else {
+			table.skinProperty().addListener((obs, oldSkin, newSkin) -> hookFlow.run());
+		}
+	}
+
+	public MenuItem getSaveSessionItem() {
+		return saveSessionItem;
+	}
+
+	public MenuItem getOpenSessionItem() {
+		return openSessionItem;
+	}
+
+	public MenuItem getRestoreSessionItem() {
+		return restoreSessionItem;
+	}
+
+	public Button getPauseButton() {
+		return pauseButton;
+	}
+
+	public Button getCancelButton() {
+		return cancelButton;
+	}
+
+	/** Shows Pause and Cancel while a verification run is in progress. */
+	public void setVerificationControlsVisible(boolean visible) {
+		pauseButton.setText("⏸ Pause");
+		pauseButton.setVisible(visible);
+		pauseButton.setManaged(visible);
+		cancelButton.setVisible(visible);
+		cancelButton.setManaged(visible);
+	}
+
 	public ProgressBar getProgressBar() {
 		return progressBar;
 	}
@@ -592,6 +785,30 @@ public class MainView {
 	public MenuItem getEmailItem() {
 		return emailItem;
 	}
+
+	/**
+	 * @return the menu toggle that starts verification while references are
+	 *         still being extracted
+	 */
+	public CheckMenuItem getVerifyWhileExtractingItem() {
+		return verifyWhileExtractingItem;
+	}
+
+	/**
+	 * @return the menu toggle that verifies against the local index and the
+	 *         offline catalog only, without network requests
+	 */
+	public CheckMenuItem getOfflineModeItem() {
+		return offlineModeItem;
+	}
+
+	/**
+	 * @return the menu item that imports a Crossref or OpenAlex metadata dump
+	 *         into the offline catalog
+	 */
+	public MenuItem getImportCatalogItem() {
+		return importCatalogItem;
+	}
 	
 	
 
@@ -0,0 +1,50 @@
+package com.cerca.service;
+
+import com.cerca.model.ReferenceItem;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class CsvServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static ReferenceItem item(String title, String authors) {
+        return new ReferenceItem(7, "WAITING", authors, title, title, "10.1000/xyz");
+    }
+
+    @Test
+    @DisplayName("Test that fields are quoted only when they contain the delimiter, quotes or line breaks")
+    void testEscapingFollowsDelimiter() throws Exception {
+        File file = tempDir.resolve("out.csv").toFile();
+        CsvService service = new CsvService();
+        service.exportToCsv(List.of(item("Smith, J.: \"Quoted\" title", "Özsoy; Tüzün")), file);
+
+        List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+        assertEquals("ID;Verified;Status;Match Score;PDF Title;PDF Authors;Crossref Title;Crossref Authors;DOI",
+                lines.get(0));
+        assertEquals("7;false;WAITING;0;\"Smith, J.: \"\"Quoted\"\" title\";\"Özsoy; Tüzün\";;;10.1000/xyz",
+                lines.get(1));
+    }
+
+    @Test
+    @DisplayName("Test that a comma delimiter quotes commas and leaves semicolons alone")
+    void testCommaDelimiter() throws Exception {
+        File file = tempDir.resolve("out.csv").toFile();
+        CsvService service = new CsvService();
+        service.setDelimiter(',');
+        service.exportToCsv(List.of(item("Smith, J. Title", "Özsoy; Tüzün")), file);
+
+        List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+        assertEquals("7,false,WAITING,0,\"Smith, J. Title\",Özsoy; Tüzün,,,10.1000/xyz", lines.get(1));
+    }
+}
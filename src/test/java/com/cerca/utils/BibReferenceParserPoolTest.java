@@ -0,0 +1,136 @@
+package com.cerca.utils;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+import pl.edu.icm.cermine.bibref.CRFBibReferenceParser;
+import pl.edu.icm.cermine.bibref.model.BibEntry;
+import pl.edu.icm.cermine.bibref.model.BibEntryFieldType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class BibReferenceParserPoolTest {
+
+    private static final String[] REFERENCES = {
+            "N. Rytilä, “Addressing end-to-end testing challenges with cypress,” 2025.",
+            "T. Zhang, Y. Liu, J. Gao, L. P. Gao, and J. Cheng, “Deep learning paper,” Ieee Software, vol. 37, no. 4, pp. 67–74, 2020.",
+            "Martina Yvonne Feilzer. Doing mixed methods research pragmatically: Implications for the rediscovery of pragmatism as a research paradigm. Journal of mixed methods research, 4(1):6–16, 2010.",
+            "Charity Majors, Liz Fong-Jones, and George Miranda. Observability engineering. \" O’Reilly Media, Inc.\", 2022.",
+            "R. Cavalcante, L. Oliveira, and A. Santos, “Developers’ perceptions of ai programming assistants: A case study of copilot, chatgpt, and gemini,” in Proceedings of the 2025 International Conference on Software Maintenance and Evolution (ICSME). IEEE, 2025."
+    };
+
+    private static final int THREADS = 8;
+    private static final int ROUNDS = 40;
+
+    private static List<String> expected;
+
+    @BeforeAll
+    static void parseSequentially() throws Exception {
+        CRFBibReferenceParser parser = CRFBibReferenceParser.getInstance();
+        expected = new ArrayList<>();
+        for (String reference : REFERENCES) {
+            expected.add(describe(parser.parseBibReference(reference)));
+        }
+    }
+
+    @Test
+    @DisplayName("Test that concurrent parsing through the pool gives the same output as sequential parsing")
+    void testConcurrentOutputIsIdentical(TestReporter reporter) throws Exception {
+        BibReferenceParserPool pool = new BibReferenceParserPool(4, BibReferenceParserPool::newParser);
+
+        long sequentialStart = System.nanoTime();
+        for (int round = 0; round < ROUNDS; round++) {
+            for (int i = 0; i < REFERENCES.length; i++) {
+                Assertions.assertEquals(expected.get(i), describe(pool.parse(REFERENCES[i])));
+            }
+        }
+        long sequentialNanos = System.nanoTime() - sequentialStart;
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            long concurrentStart = System.nanoTime();
+            List<Future<List<String>>> results = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                results.add(executor.submit(() -> {
+                    List<String> out = new ArrayList<>();
+                    for (int round = 0; round < ROUNDS / THREADS; round++) {
+                        for (String reference : REFERENCES) {
+                            out.add(describe(pool.parse(reference)));
+                        }
+                    }
+                    return out;
+                }));
+            }
+
+            for (Future<List<String>> result : results) {
+                List<String> out = result.get();
+                for (int i = 0; i < out.size(); i++) {
+                    Assertions.assertEquals(expected.get(i % REFERENCES.length), out.get(i));
+                }
+            }
+            long concurrentNanos = System.nanoTime() - concurrentStart;
+
+            // Recorded in the test report, to compare the pool with a single parser
+            int parses = ROUNDS * REFERENCES.length;
+            reporter.publishEntry("throughput", String.format(
+                    "%d parsers: single thread %.0f refs/s, %d threads %.0f refs/s", pool.size(), parses / (sequentialNanos / 1e9), THREADS, parses / (concurrentNanos / 1e9)));
+            Assertions.assertTrue(pool.size() >= 1 && pool.size() <= 4, "Pool size " + pool.size());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Test that the default factory loads a parser per pool slot instead of CERMINE's shared one")
+    void testNewParserIsNotShared() throws Exception {
+        CRFBibReferenceParser first = BibReferenceParserPool.newParser();
+        CRFBibReferenceParser second = BibReferenceParserPool.newParser();
+
+        Assertions.assertNotSame(first, second);
+        Assertions.assertNotSame(CRFBibReferenceParser.getInstance(), first);
+        Assertions.assertEquals(expected.get(0), describe(second.parseBibReference(REFERENCES[0])));
+    }
+
+    @Test
+    @DisplayName("Test that the default pool size stays within a quarter of the heap budget")
+    void testDefaultSizeFollowsHeapBudget() {
+        Assertions.assertEquals(1, BibReferenceParserPool.defaultSize(64));
+        Assertions.assertEquals(1,
+                BibReferenceParserPool.defaultSize(4L * BibReferenceParserPool.ESTIMATED_MB_PER_PARSER));
+        Assertions.assertTrue(BibReferenceParserPool.defaultSize(1 << 20) <= 4);
+    }
+
+    @Test
+    @DisplayName("Test that a factory returning one shared instance keeps the pool at that instance")
+    void testSharedInstanceIsNotDuplicated() throws Exception {
+        CRFBibReferenceParser shared = CRFBibReferenceParser.getInstance();
+        BibReferenceParserPool pool = new BibReferenceParserPool(4, () -> shared);
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int t = 0; t < THREADS * 4; t++) {
+                String reference = REFERENCES[t % REFERENCES.length];
+                results.add(executor.submit(() -> describe(pool.parse(reference))));
+            }
+            for (int t = 0; t < results.size(); t++) {
+                Assertions.assertEquals(expected.get(t % REFERENCES.length), results.get(t).get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+        Assertions.assertEquals(1, pool.size());
+    }
+
+    private static String describe(BibEntry entry) {
+        return entry.getAllFieldValues(BibEntryFieldType.AUTHOR) + " | "
+                + entry.getFirstFieldValue(BibEntryFieldType.TITLE) + " | "
+                + entry.getFirstFieldValue(BibEntryFieldType.YEAR);
+    }
+}
@@ -0,0 +1,45 @@
+package com.cerca.utils;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class DoiNormalizerTest {
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "10.1038/nature14539|10.1038/nature14539",
+            "https://doi.org/10.1038/NATURE14539.|10.1038/nature14539",
+            "http://dx.doi.org/10.1038%2Fnature14539|10.1038/nature14539",
+            "doi:10.1038/nature14539;|10.1038/nature14539",
+            "DOI: 10.5281/zenodo.1234567, 2020|10.5281/zenodo.1234567",
+            "(https://doi.org/10.1016/j.jss.2020.110817)|10.1016/j.jss.2020.110817",
+            "10.1002/(SICI)1097-4571(199806)49:8<693::AID-ASI4>3.0.CO;2-O|10.1002/(sici)1097-4571(199806)49:8<693::aid-asi4>3.0.co;2-o",
+            "https://doi.org/10.48550/arXiv.1706.03762|10.48550/arxiv.1706.03762",
+            "“10.1145/3377811.3380330.”|10.1145/3377811.3380330"
+    })
+    void testNormalize(String input, String expected) {
+        assertEquals(expected, DoiNormalizer.normalize(input));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = { "", "Unknown", "10.1038", "10.12/short-registrant", "vol. 10. 2020", "x10.1038/nature14539" })
+    void testNotADoi(String input) {
+        assertNull(DoiNormalizer.normalize(input));
+    }
+
+    @Test
+    void testNull() {
+        assertNull(DoiNormalizer.normalize(null));
+    }
+
+    @Test
+    void testToUrlPath() {
+        assertEquals("10.1002/%28sici%291097-4571%28199806%2949%3A8%3C693%3A%3Aaid-asi4%3E3.0.co%3B2-o",
+                DoiNormalizer.toUrlPath("10.1002/(sici)1097-4571(199806)49:8<693::aid-asi4>3.0.co;2-o"));
+    }
+}
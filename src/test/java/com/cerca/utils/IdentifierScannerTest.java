@@ -0,0 +1,100 @@
+package com.cerca.utils;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import com.cerca.model.ReferenceItem;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class IdentifierScannerTest {
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "A. Vaswani et al. Attention is all you need. arXiv:1706.03762, 2017.|1706.03762",
+            "Available at https://arxiv.org/abs/1706.03762v5|1706.03762",
+            "arXiv preprint arXiv:2106.09685 (2021)|2106.09685",
+            "J. Maldacena. The large N limit. arXiv:hep-th/9711200, 1997.|hep-th/9711200",
+            "D. Thurston. Knots. ArXiv math.GT/0309136|math.gt/0309136"
+    })
+    void testArxivId(String text, String expected) {
+        assertEquals(expected, IdentifierScanner.scan(text).getArxivId());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = { "arXiv preprint, 2017", "arXiv:1713.03762", "Proc. 1706.03762 of arXiv-free text" })
+    void testNoArxivId(String text) {
+        assertNull(IdentifierScanner.scan(text).getArxivId());
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "Introduction to Algorithms. MIT Press, 2009. ISBN 978-0-262-03384-8.|9780262033848",
+            "MIT Press. ISBN-13: 978 0 262 03384 8|9780262033848",
+            "MIT Press, ISBN: 0-262-03384-4|0262033844",
+            "ISBN 0-8044-2957-X|080442957X",
+            "Cambridge University Press, 9780262033848, 2009|9780262033848"
+    })
+    void testIsbn(String text, String expected) {
+        assertEquals(expected, IdentifierScanner.scan(text).getIsbn());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = { "ISBN 978-0-262-03384-9", "pp. 9780262033849-12", "Vol. 978, pp. 1-10, 2020" })
+    void testNoIsbn(String text) {
+        assertNull(IdentifierScanner.scan(text).getIsbn());
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "Cerca. Available: https://github.com/lidianycs/cerca.|https://github.com/lidianycs/cerca",
+            "(see www.example.org/page), 2020|www.example.org/page",
+            "URL <http://example.com/a_(b)>|http://example.com/a_(b)"
+    })
+    void testUrl(String text, String expected) {
+        assertEquals(expected, IdentifierScanner.scan(text).getUrl());
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "Attention is all you need. doi:10.48550/arXiv.1706.03762|10.48550/arxiv.1706.03762",
+            "Attention is all you need. arXiv:1706.03762v5|10.48550/arxiv.1706.03762",
+            "Dataset. Zenodo. https://zenodo.org/records/1234567|10.5281/zenodo.1234567",
+            "Dataset. Zenodo. https://zenodo.org/record/1234567#.YF|10.5281/zenodo.1234567"
+    })
+    void testBestDoi(String text, String expected) {
+        assertEquals(expected, IdentifierScanner.scan(text).getBestDoi());
+    }
+
+    @Test
+    void testApplyKeepsExtractedDoi() {
+        ReferenceItem item = new ReferenceItem(1, "WAITING", "A. Vaswani", "Attention Is All You Need",
+                "A. Vaswani. Attention Is All You Need. arXiv:1706.03762", "10.5555/3295222");
+        IdentifierScanner.apply(item);
+
+        assertEquals("10.5555/3295222", item.getDetectedDoi());
+        assertEquals("1706.03762", item.getArxivId());
+    }
+
+    @Test
+    void testApplyFillsMissingDoi() {
+        ReferenceItem item = new ReferenceItem(1, "WAITING", "A. Vaswani", "Attention Is All You Need",
+                "A. Vaswani. Attention Is All You Need. arXiv:1706.03762", "");
+        IdentifierScanner.apply(item);
+
+        assertEquals("10.48550/arxiv.1706.03762", item.getDetectedDoi());
+    }
+
+    @Test
+    void testEmptyText() {
+        IdentifierScanner.Identifiers ids = IdentifierScanner.scan(null);
+        assertNull(ids.getDoi());
+        assertNull(ids.getArxivId());
+        assertNull(ids.getIsbn());
+        assertNull(ids.getUrl());
+        assertNull(ids.getBestDoi());
+    }
+}
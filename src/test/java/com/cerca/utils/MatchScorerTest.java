@@ -0,0 +1,46 @@
+package com.cerca.utils;
+
+import org.junit.jupiter.api.Test;
+
+import com.cerca.model.MatchResult;
+import com.cerca.model.ReferenceItem;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MatchScorerTest {
+
+    private static final String TITLE = "Attention Is All You Need";
+    private static final String DB_AUTHORS = "Ashish Vaswani; Noam Shazeer";
+
+    /** "Vaswani" scores 41 against the full author list. */
+    private static ReferenceItem item() {
+        return new ReferenceItem(1, "WAITING", "Vaswani", TITLE, "Vaswani. " + TITLE + ". NeurIPS, 2017.", "");
+    }
+
+    @Test
+    void testDefaultFloorCapsWeakAuthors() {
+        MatchResult result = MatchScorer.score("Crossref", item(), TITLE, DB_AUTHORS, "", 2017);
+
+        assertEquals(41, result.getAuthorScore());
+        assertEquals(50, result.getScore());
+    }
+
+    @Test
+    void testProviderFloorWeighsWeakAuthors() {
+        MatchResult result = MatchScorer.score("OpenAlex", item(), TITLE, DB_AUTHORS, "", 2017, false, 40);
+
+        assertEquals(41, result.getAuthorScore());
+        assertEquals(76, result.getScore());
+    }
+
+    /** A title under 5 characters is raw fallback by default; Zenodo only falls back on "Unknown Title". */
+    @Test
+    void testRawFallbackIsTheCallersChoice() {
+        ReferenceItem item = new ReferenceItem(1, "WAITING", DB_AUTHORS, "BERT", "J. Devlin. BERT. NAACL, 2019.", "");
+
+        assertEquals(100, MatchScorer.score("Crossref", item, "NAACL", DB_AUTHORS, "", 2019).getTitleScore());
+        assertEquals(100, MatchScorer.score("Zenodo", item, "BERT", DB_AUTHORS, "", 2019, false, 40).getTitleScore());
+        assertTrue(MatchScorer.score("Zenodo", item, "NAACL", DB_AUTHORS, "", 2019, false, 40).getTitleScore() < 50);
+    }
+}
@@ -0,0 +1,70 @@
+package com.cerca.utils;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.File;
+
+public class ReferenceSectionLocatorTest {
+
+    @ParameterizedTest
+    @ValueSource(strings = {"References", "REFERENCES", "7. References", "VI. REFERENCES", "Bibliography:",
+            "Referências Bibliográficas", "Works Cited"})
+    void testHeadingIsDetected(String heading) {
+        String page = "Some closing remarks of the paper.\n" + heading + "\n[1] A. Author, \"A title,\" 2020.";
+        Assertions.assertTrue(ReferenceSectionLocator.isReferencesHeading(page));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"As shown in the references below, the method works.",
+            "The references were collected manually"})
+    void testSentenceIsNotAHeading(String line) {
+        Assertions.assertFalse(ReferenceSectionLocator.isReferencesHeading(line));
+    }
+
+    @Test
+    @DisplayName("Test that numbered reference lists have a high citation density")
+    void testCitationDensity() {
+        String refs = "[1] A. Author, \"First,\" 2020.\n[2] B. Author, \"Second,\" 2021.\n"
+                + "continued line of the second reference\n[3] C. Author, \"Third,\" 2022.";
+        String body = "This is body text.\nIt has no citations at the start of lines.\nOnly prose [4].";
+
+        Assertions.assertTrue(ReferenceSectionLocator.citationDensity(refs) > 0.5);
+        Assertions.assertEquals(0.0, ReferenceSectionLocator.citationDensity(body));
+    }
+
+    @Test
+    @DisplayName("Test that a heading repeated as a running header does not cut the section to its last page")
+    void testRunningHeader() throws Exception {
+        String[] pages = {
+                null,
+                "A Study\nIntroduction\nBody text of the paper.",
+                "Body text of the paper, continued [1].",
+                "Conclusion\nClosing remarks.\nREFERENCES\n[1] A. Author, \"First,\" 2020.",
+                "REFERENCES\n[2] B. Author, \"Second,\" 2021.\n[3] C. Author, \"Third,\" 2022.",
+                "REFERENCES\n[4] D. Author, \"Fourth,\" 2023.",
+                "Appendix A. Proofs\nThe proofs follow."
+        };
+        ReferenceSectionLocator.PageRange range = ReferenceSectionLocator.locate(pages.length - 1, page -> pages[page]);
+
+        Assertions.assertNotNull(range);
+        Assertions.assertEquals(3, range.first);
+        Assertions.assertEquals(5, range.last);
+    }
+
+    @Test
+    @DisplayName("Test that the reference section of the APA sample PDF excludes the body pages")
+    void testLocateInPdf() throws Exception {
+        try (PDDocument document = PDDocument.load(new File("src/test/resources/pdfs/Dummy_PDF_APA_Format.pdf"))) {
+            ReferenceSectionLocator.PageRange range = ReferenceSectionLocator.locate(document);
+
+            Assertions.assertNotNull(range);
+            Assertions.assertTrue(range.first > 1);
+            Assertions.assertEquals(document.getNumberOfPages(), range.last);
+        }
+    }
+}
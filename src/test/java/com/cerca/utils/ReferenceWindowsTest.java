@@ -0,0 +1,80 @@
+package com.cerca.utils;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import pl.edu.icm.cermine.bibref.model.BibEntry;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ReferenceWindowsTest {
+
+    private static final int LINES_PER_PAGE = 10;
+
+    /**
+     * A reference section of 12 pages whose references are 1 to 9 lines long,
+     * so most of them cross a page break. A window returns, for each reference
+     * with lines on its pages, those lines only, as CERMINE would.
+     */
+    private static final int[] REFERENCE_LINES = { 3, 9, 2, 7, 4, 4, 8, 1, 6, 5, 3, 9, 2, 2, 7, 6, 3, 8, 4, 1, 5, 9,
+            3, 3, 6, 7, 2, 4, 8, 5, 3, 1, 9 };
+
+    @ParameterizedTest
+    @ValueSource(ints = { 1, 3, 4, 5, 7, 11 })
+    void testWindowsMatchSinglePass(int windowPages) throws Exception {
+        int pages = totalLines() / LINES_PER_PAGE + 1;
+        List<String> singlePass = texts(read(1, pages));
+
+        List<String> windowed = new ArrayList<>();
+        int count = ReferenceWindows.extract(1, pages, windowPages, ReferenceWindowsTest::read,
+                entry -> windowed.add(entry.getText()));
+
+        assertEquals(REFERENCE_LINES.length, singlePass.size());
+        assertEquals(singlePass.size(), count);
+        assertEquals(singlePass, windowed);
+    }
+
+    @Test
+    void testSingleWindow() throws Exception {
+        List<String> windowed = new ArrayList<>();
+        ReferenceWindows.extract(1, 2, 20, ReferenceWindowsTest::read, entry -> windowed.add(entry.getText()));
+
+        assertEquals(texts(read(1, 2)), windowed);
+    }
+
+    private static List<BibEntry> read(int firstPage, int lastPage) {
+        int from = (firstPage - 1) * LINES_PER_PAGE;
+        int to = lastPage * LINES_PER_PAGE;
+
+        List<BibEntry> entries = new ArrayList<>();
+        int line = 0;
+        for (int ref = 0; ref < REFERENCE_LINES.length; ref++) {
+            StringBuilder text = new StringBuilder();
+            for (int i = 0; i < REFERENCE_LINES[ref]; i++, line++) {
+                if (line >= from && line < to) text.append("ref").append(ref).append("line").append(i).append(' ');
+            }
+            if (text.length() > 0) {
+                BibEntry entry = new BibEntry();
+                entry.setText(text.toString().trim());
+                entries.add(entry);
+            }
+        }
+        return entries;
+    }
+
+    private static List<String> texts(List<BibEntry> entries) {
+        List<String> texts = new ArrayList<>();
+        for (BibEntry entry : entries) texts.add(entry.getText());
+        return texts;
+    }
+
+    private static int totalLines() {
+        int total = 0;
+        for (int lines : REFERENCE_LINES) total += lines;
+        return total;
+    }
+}
@@ -0,0 +1,119 @@
+package com.cerca.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SingleFlightTest {
+
+    private static final int THREADS = 8;
+
+    @Test
+    void testConcurrentCallersShareOneCall() throws Exception {
+        SingleFlight<String, Object> flight = new SingleFlight<>();
+        AtomicInteger calls = new AtomicInteger();
+        AtomicInteger arrived = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        Object response = new Object();
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<Object>> results = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                results.add(pool.submit(() -> {
+                    arrived.incrementAndGet();
+                    return flight.run("crossref:10.1038/nature14539", () -> {
+                        calls.incrementAndGet();
+                        release.await();
+                        return response;
+                    });
+                }));
+            }
+
+            // Let every caller join the call in flight before it returns
+            waitFor(() -> arrived.get() == THREADS);
+            Thread.sleep(100);
+            release.countDown();
+
+            for (Future<Object> result : results) {
+                assertSame(response, result.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, calls.get());
+            assertEquals(0, flight.size());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void testLaterCallsRunAgain() throws Exception {
+        SingleFlight<String, Integer> flight = new SingleFlight<>();
+        AtomicInteger calls = new AtomicInteger();
+
+        assertEquals(1, flight.run("key", calls::incrementAndGet));
+        assertEquals(2, flight.run("key", calls::incrementAndGet));
+        assertEquals(3, flight.run("other", calls::incrementAndGet));
+    }
+
+    @Test
+    void testFailureIsSharedAndForgotten() throws Exception {
+        SingleFlight<String, String> flight = new SingleFlight<>();
+
+        assertThrows(IOException.class, () -> flight.run("key", () -> {
+            throw new IOException("Connection reset");
+        }));
+        assertEquals("ok", flight.run("key", () -> "ok"));
+    }
+
+    @Test
+    void testInterruptedLeaderDoesNotFailWaitingCallers() throws Exception {
+        SingleFlight<String, String> flight = new SingleFlight<>();
+        CountDownLatch leading = new CountDownLatch(1);
+
+        Thread leader = new Thread(() -> {
+            try {
+                flight.run("key", () -> {
+                    leading.countDown();
+                    Thread.sleep(10_000);
+                    return "never";
+                });
+            } catch (Exception expected) {
+                // Cancelled
+            }
+        });
+        leader.start();
+        assertTrue(leading.await(5, TimeUnit.SECONDS));
+
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> follower = pool.submit(() -> flight.run("key", () -> "fresh"));
+            Thread.sleep(100);
+            leader.interrupt();
+
+            assertEquals("fresh", follower.get(5, TimeUnit.SECONDS));
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+}
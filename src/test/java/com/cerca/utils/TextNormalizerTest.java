@@ -0,0 +1,68 @@
+package com.cerca.utils;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class TextNormalizerTest {
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "[80] N. Rytilä, Title|N. Rytilä, Title",
+            "(3) Smith J. Title|Smith J. Title",
+            "12. Smith J. Title|Smith J. Title",
+            "4: Smith J. Title|Smith J. Title",
+            "[7]Smith J. Title|Smith J. Title",
+            "3D printing in practice|3D printing in practice",
+            "[12]3D printing in practice|3D printing in practice",
+            "5G networks|5G networks",
+            "Smith J. Title|Smith J. Title"
+    })
+    void testStripNumbering(String input, String expected) {
+        assertEquals(expected, TextNormalizer.stripNumbering(input));
+    }
+
+    /** A leading year is indistinguishable from a reference number, so it goes too. */
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "2020 study of things|study of things",
+            "2020. Study of things|Study of things",
+            "1984 by George Orwell|by George Orwell"
+    })
+    void testStripNumberingRemovesLeadingYear(String input, String expected) {
+        assertEquals(expected, TextNormalizer.stripNumbering(input));
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "Deep learning paper,|Deep learning paper",
+            "Observability engineering.;.|Observability engineering",
+            "No punctuation|No punctuation"
+    })
+    void testStripTrailingPunctuation(String input, String expected) {
+        assertEquals(expected, TextNormalizer.stripTrailingPunctuation(input));
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "Yetiştiren|yetistiren",
+            "Özsoy and Tüzün|ozsoy and tuzun",
+            "Łukasz Bolikowski|lukasz bolikowski",
+            "Straße|strasse",
+            "Plain ASCII Title|plain ascii title"
+    })
+    void testFold(String input, String expected) {
+        assertEquals(expected, TextNormalizer.fold(input));
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "“Deep learning paper,” Ieee Software|deep learning paper ieee software",
+            "Developers’ perceptions: A case-study|developers perceptions a case study",
+            "  --  |''"
+    })
+    void testToQuery(String input, String expected) {
+        assertEquals(expected, TextNormalizer.toQuery(input));
+    }
+}
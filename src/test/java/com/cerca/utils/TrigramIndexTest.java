@@ -0,0 +1,77 @@
+package com.cerca.utils;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class TrigramIndexTest {
+
+    private static final String[] TITLES = {
+            "Deep learning",
+            "Attention is all you need",
+            "Doing mixed methods research pragmatically: Implications for the rediscovery of pragmatism",
+            "Observability engineering",
+            "Developers' perceptions of AI programming assistants: A case study of Copilot, ChatGPT, and Gemini",
+            "Addressing end-to-end testing challenges with Cypress"
+    };
+
+    private TrigramIndex index;
+
+    @BeforeEach
+    void buildIndex() {
+        index = new TrigramIndex();
+        for (int i = 0; i < TITLES.length; i++) {
+            index.add(i, TITLES[i]);
+        }
+    }
+
+    @Test
+    void testFindsTitleWithTyposAndPunctuation() {
+        int[] ids = index.candidates("Developers perceptions of A.I. programing assistants - a case study of copilot",
+                3, 0.5);
+        assertEquals(4, ids[0]);
+
+        ids = index.candidates("“Attention Is All You Need,”", 3, 0.5);
+        assertEquals(1, ids[0]);
+    }
+
+    @Test
+    void testUnrelatedTitleHasNoCandidates() {
+        assertEquals(0, index.candidates("Quantum chromodynamics on the lattice", 3, 0.5).length);
+        assertEquals(0, index.candidates("", 3, 0.5).length);
+    }
+
+    @Test
+    void testLimitAndOrder() {
+        TrigramIndex similar = new TrigramIndex();
+        similar.add(0, "Deep learning for graphs");
+        similar.add(1, "Deep learning");
+        similar.add(2, "Deep learning for graphs and text");
+
+        assertArrayEquals(new int[] { 1, 0 }, similar.candidates("Deep learning", 2, 0.3));
+    }
+
+    @Test
+    void testMappedIndexGivesSameCandidates(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("titles.tri");
+        index.write(file);
+        TrigramIndex mapped = TrigramIndex.map(file);
+
+        assertEquals(index.size(), mapped.size());
+        for (String title : TITLES) {
+            assertArrayEquals(index.candidates(title, 5, 0.3), mapped.candidates(title, 5, 0.3));
+        }
+        assertThrows(IllegalStateException.class, () -> mapped.add(TITLES.length, "More"));
+    }
+
+    @Test
+    void testIdsMustIncrease() {
+        assertThrows(IllegalArgumentException.class, () -> index.add(2, "Again"));
+    }
+}